@@ -0,0 +1,96 @@
+package com.vgs.backend.benchmarks;
+
+import com.vgs.backend.model.Listing;
+import com.vgs.backend.model.MessageThread;
+import com.vgs.backend.model.User;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Synthetic data shaped like production, seeded so runs are comparable. */
+final class Datasets {
+
+    static final String SCHOOL = "bench-university";
+
+    private static final String[] ADJECTIVES = {
+        "Used", "Like New", "Vintage", "Compact", "Large", "Mini", "Ergonomic", "Wooden", "Foldable", "Gaming"
+    };
+    private static final String[] ITEMS = {
+        "Desk", "Chair", "Lamp", "Couch", "Bike", "Textbook", "Monitor", "Microwave", "Rug", "Bookshelf",
+        "Mattress", "Sublet", "Calculator", "Kettle", "Mirror", "Fridge", "Headphones", "Printer"
+    };
+    private static final String[] TAGS = {
+        "furniture", "electronics", "books", "kitchen", "sublet", "decor", "bikes", "appliances"
+    };
+    private static final String[] WORDS = {
+        "great", "condition", "pickup", "campus", "moving", "out", "cheap", "barely", "used", "works",
+        "perfectly", "must", "go", "by", "friday", "near", "library", "dorm", "clean", "smoke", "free"
+    };
+
+    private Datasets() {
+    }
+
+    static String title(Random random) {
+        return ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + ITEMS[random.nextInt(ITEMS.length)]
+                + (random.nextBoolean() ? " – Café Édition #" + random.nextInt(100) : "");
+    }
+
+    static List<Listing> listings(int size, long seed) {
+        Random random = new Random(seed);
+        LocalDateTime now = LocalDateTime.now();
+        List<Listing> listings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Listing l = new Listing();
+            l.setId(String.format("%024x", i));
+            l.setSchoolId(SCHOOL);
+            l.setOwnerId("owner" + random.nextInt(Math.max(1, size / 10)) + "@bench.edu");
+            l.setTitle(title(random));
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 20; w++) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            l.setDescription(description.toString());
+            l.setTags(List.of(TAGS[random.nextInt(TAGS.length)], TAGS[random.nextInt(TAGS.length)]));
+            l.setPrice(Math.round(random.nextDouble() * 50_000) / 100.0);
+            l.setDatePosted(now.minusMinutes(random.nextInt(60 * 24 * 90)));
+            listings.add(l);
+        }
+        return listings;
+    }
+
+    static List<User> users(int size) {
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User u = new User();
+            u.setId(Integer.toString(i));
+            u.setEmail("user" + i + "@bench.edu");
+            u.setFirstName("First" + i);
+            u.setLastName("Last" + i);
+            u.setUniversity(SCHOOL);
+            users.add(u);
+        }
+        return users;
+    }
+
+    static List<MessageThread> threads(String owner, int size, long seed) {
+        Random random = new Random(seed);
+        Instant now = Instant.now();
+        List<MessageThread> threads = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            MessageThread t = new MessageThread();
+            t.setId(String.format("%024x", i));
+            t.setOwnerId(owner);
+            t.setCounterpartId("user" + i + "@bench.edu");
+            t.setCounterpartName("First" + i + " Last" + i);
+            t.setLastMessage("is the " + ITEMS[random.nextInt(ITEMS.length)].toLowerCase() + " still available?");
+            t.setLastSenderId(random.nextBoolean() ? owner : t.getCounterpartId());
+            t.setLastAt(now.minusSeconds(i * 60L));
+            t.setUnreadCount(random.nextInt(3));
+            threads.add(t);
+        }
+        return threads;
+    }
+}
@@ -0,0 +1,59 @@
+package com.vgs.backend.benchmarks;
+
+import com.vgs.backend.util.ImageRenditions;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thumb/card/full rendition throughput for a 12 MP phone photo, on one
+ * thread and on every core, to size {@code images.pipeline.threads}.
+ * Per-core throughput is the all-cores score divided by the core count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ImageRenditionsBenchmark {
+
+    private byte[] photo;
+
+    @Setup
+    public void setUp() throws IOException {
+        photo = syntheticPhoto(4032, 3024);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Map<ImageRenditions.Size, byte[]> renderOneThread() throws IOException {
+        return ImageRenditions.render(photo);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Map<ImageRenditions.Size, byte[]> renderAllCores() throws IOException {
+        return ImageRenditions.render(photo);
+    }
+
+    private static byte[] syntheticPhoto(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.ORANGE, width, height, Color.BLUE));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,53 @@
+package com.vgs.backend.benchmarks;
+
+import com.vgs.backend.model.AuthUser;
+import com.vgs.backend.util.JwtUtil;
+import com.vgs.backend.util.SchoolTags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification. {@code verifyCached} is what the auth filter
+ * sees for a returning client, {@code verifyUncached} the first request with a
+ * token (signature check and claim parsing).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        String secret = Base64.getEncoder().encodeToString(new byte[64]);
+        SchoolTags schoolTags = new SchoolTags(100);
+        cached = new JwtUtil(secret, 10_000, new SimpleMeterRegistry(), schoolTags);
+        uncached = new JwtUtil(secret, 0, new SimpleMeterRegistry(), schoolTags);
+        token = cached.generateToken("user@bench.edu", Datasets.SCHOOL);
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken("user@bench.edu", Datasets.SCHOOL);
+    }
+
+    @Benchmark
+    public AuthUser verifyCached() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public AuthUser verifyUncached() {
+        return uncached.verify(token);
+    }
+}
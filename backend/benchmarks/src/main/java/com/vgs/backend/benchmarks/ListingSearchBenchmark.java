@@ -0,0 +1,58 @@
+package com.vgs.backend.benchmarks;
+
+import com.vgs.backend.model.Listing;
+import com.vgs.backend.service.ListingSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The relevance search behind {@code GET /listings/search}: term lookup, tag
+ * and price filters, scoring and paging over one school's listings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingSearchBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private ListingSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        List<Listing> listings = Datasets.listings(size, 42);
+        MongoTemplate mongo = mock(MongoTemplate.class);
+        when(mongo.stream(any(Query.class), eq(Listing.class))).thenAnswer(inv -> listings.stream());
+
+        index = new ListingSearchIndex(mongo, Long.MAX_VALUE / 1000);
+        index.search(Datasets.SCHOOL, "desk", null, null, null, 0, 1); // load the school
+    }
+
+    @Benchmark
+    public ListingSearchIndex.Hits singleTerm() {
+        return index.search(Datasets.SCHOOL, "desk", null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public ListingSearchIndex.Hits prefixWhileTyping() {
+        return index.search(Datasets.SCHOOL, "wooden bo", null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public ListingSearchIndex.Hits termsTagsAndPrice() {
+        return index.search(Datasets.SCHOOL, "used chair campus", List.of("furniture"), 10.0, 200.0, 0, 20);
+    }
+}
@@ -0,0 +1,50 @@
+package com.vgs.backend.benchmarks;
+
+import com.vgs.backend.util.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt cost per signup ({@code hash}) and per login ({@code matches}) at
+ * each work factor, to pick {@code passwords.bcrypt.cost} for our hardware.
+ * Measured through the hasher's pool, so queue hand-off is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHasherBenchmark {
+
+    private static final String PASSWORD = "Correct-Horse-9";
+
+    @Param({"10", "11", "12", "13"})
+    public int cost;
+
+    private PasswordHasher hasher;
+    private String hashed;
+
+    @Setup
+    public void setUp() {
+        hasher = new PasswordHasher(cost, 1, 16, 1, new SimpleMeterRegistry());
+        hashed = hasher.hash(PASSWORD).join();
+    }
+
+    @TearDown
+    public void tearDown() {
+        hasher.close();
+    }
+
+    @Benchmark
+    public String hash() {
+        return hasher.hash(PASSWORD).join();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return hasher.matches(PASSWORD, hashed).join();
+    }
+}
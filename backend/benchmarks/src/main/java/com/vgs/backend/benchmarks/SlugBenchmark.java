@@ -0,0 +1,38 @@
+package com.vgs.backend.benchmarks;
+
+import com.vgs.backend.util.SlugUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlugBenchmark {
+
+    @Param({"1024"})
+    public int size;
+
+    private String[] titles;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        titles = new String[size];
+        for (int i = 0; i < size; i++) {
+            titles[i] = "  " + Datasets.title(random) + "  ";
+        }
+    }
+
+    @Benchmark
+    public String slugify() {
+        String title = titles[next];
+        next = (next + 1) % titles.length;
+        return SlugUtil.slugify(title);
+    }
+}
@@ -0,0 +1,61 @@
+package com.vgs.backend.benchmarks;
+
+import com.vgs.backend.model.MessageThread;
+import com.vgs.backend.model.User;
+import com.vgs.backend.repository.MessageThreadRepository;
+import com.vgs.backend.repository.UserRepository;
+import com.vgs.backend.service.MessageService;
+import com.vgs.backend.service.UserSummaryCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Inbox assembly in {@code MessageService.getThreads}: one page of thread
+ * documents joined with current display names from the summary cache. The
+ * repository is stubbed, so this measures the service's own work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadListBenchmark {
+
+    private static final String ME = "me@bench.edu";
+
+    @Param({"20", "50", "200"})
+    public int pageSize;
+
+    private MessageService messages;
+
+    @Setup
+    public void setUp() {
+        List<MessageThread> threads = Datasets.threads(ME, pageSize, 42);
+        List<User> users = Datasets.users(pageSize);
+
+        MessageThreadRepository threadRepo = mock(MessageThreadRepository.class);
+        when(threadRepo.findPageByOwnerId(eq(ME), any(), anyInt())).thenReturn(threads);
+        UserRepository userRepo = mock(UserRepository.class);
+        when(userRepo.findByEmailIn(anyCollection())).thenReturn(users);
+
+        UserSummaryCache summaries = new UserSummaryCache(userRepo, new SimpleMeterRegistry(), 10_000, 600);
+        messages = new MessageService(null, threadRepo, summaries, null, null);
+        messages.getThreads(ME, null, pageSize); // warm the summary cache
+    }
+
+    @Benchmark
+    public List<MessageService.ThreadDto> getThreads() {
+        return messages.getThreads(ME, null, pageSize);
+    }
+}
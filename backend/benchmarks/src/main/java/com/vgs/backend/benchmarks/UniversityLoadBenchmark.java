@@ -0,0 +1,60 @@
+package com.vgs.backend.benchmarks;
+
+import com.vgs.backend.model.UniversityEntry;
+import com.vgs.backend.util.UniversitySnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the university list from the json file versus the binary snapshot.
+ * Warm times by default; for the first load in a fresh JVM, which is what a
+ * pod pays at boot, run with {@code -bm ss -wi 0 -i 1 -f 20}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UniversityLoadBenchmark {
+
+    private byte[] json;
+    private byte[] snapshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(UniversitySnapshot.JSON_RESOURCE)) {
+            json = in.readAllBytes();
+        }
+        snapshot = UniversitySnapshot.encode(parseJson());
+
+        // both paths must load the same list, or the comparison means nothing
+        List<UniversityEntry> fromJson = parseJson();
+        List<UniversityEntry> fromSnapshot = decodeSnapshot();
+        fromJson.sort(Comparator.comparing(UniversityEntry::getName));
+        for (int i = 0; i < Math.max(fromJson.size(), fromSnapshot.size()); i++) {
+            if (i >= fromJson.size() || i >= fromSnapshot.size()
+                || !fromJson.get(i).getName().equals(fromSnapshot.get(i).getName())
+                || !fromJson.get(i).getDomains().equals(fromSnapshot.get(i).getDomains())) {
+                throw new IllegalStateException("snapshot differs from json at entry " + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<UniversityEntry> parseJson() throws IOException {
+        return UniversitySnapshot.parseJson(new ByteArrayInputStream(json));
+    }
+
+    @Benchmark
+    public List<UniversityEntry> decodeSnapshot() throws IOException {
+        return UniversitySnapshot.decode(ByteBuffer.wrap(snapshot));
+    }
+}
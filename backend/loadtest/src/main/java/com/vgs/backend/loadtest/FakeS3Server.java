@@ -0,0 +1,166 @@
+package com.vgs.backend.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Just enough of the S3 REST API, path-style, for what S3Service does: PUT
+ * (plain and aws-chunked), GET, HEAD, DELETE and multi-object delete. Objects
+ * live in memory; signatures are not checked.
+ */
+class FakeS3Server implements AutoCloseable {
+
+    private static final Pattern DELETE_KEY = Pattern.compile("<Key>(.*?)</Key>", Pattern.DOTALL);
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(32);
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+
+    FakeS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int objectCount() {
+        return objects.size();
+    }
+
+    long requestCount() {
+        return requests.get();
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        requests.incrementAndGet();
+        try (ex) {
+            // "/<bucket>/<key>", key url-encoded
+            String path = ex.getRequestURI().getRawPath();
+            int slash = path.indexOf('/', 1);
+            String key = slash < 0 ? "" : URLDecoder.decode(path.substring(slash + 1), StandardCharsets.UTF_8);
+            String query = ex.getRequestURI().getRawQuery();
+
+            switch (ex.getRequestMethod()) {
+                case "PUT" -> {
+                    objects.put(key, readBody(ex));
+                    String type = ex.getRequestHeaders().getFirst("Content-Type");
+                    contentTypes.put(key, type != null ? type : "binary/octet-stream");
+                    ex.getResponseHeaders().set("ETag", "\"" + Integer.toHexString(key.hashCode()) + "\"");
+                    ex.sendResponseHeaders(200, -1);
+                }
+                case "GET" -> {
+                    byte[] body = objects.get(key);
+                    if (body == null) {
+                        notFound(ex);
+                    } else {
+                        ex.sendResponseHeaders(200, body.length);
+                        ex.getResponseBody().write(body);
+                    }
+                }
+                case "HEAD" -> {
+                    byte[] body = objects.get(key);
+                    if (body == null) {
+                        ex.sendResponseHeaders(404, -1);
+                    } else {
+                        ex.getResponseHeaders().set("Content-Length", Long.toString(body.length));
+                        ex.getResponseHeaders().set("Content-Type", contentTypes.getOrDefault(key, "binary/octet-stream"));
+                        ex.sendResponseHeaders(200, -1);
+                    }
+                }
+                case "DELETE" -> {
+                    objects.remove(key);
+                    contentTypes.remove(key);
+                    ex.sendResponseHeaders(204, -1);
+                }
+                case "POST" -> {
+                    if (query != null && query.startsWith("delete")) {
+                        Matcher m = DELETE_KEY.matcher(new String(readBody(ex), StandardCharsets.UTF_8));
+                        while (m.find()) {
+                            String deleted = unescapeXml(m.group(1));
+                            objects.remove(deleted);
+                            contentTypes.remove(deleted);
+                        }
+                        xml(ex, 200, "<DeleteResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\"/>");
+                    } else {
+                        ex.sendResponseHeaders(501, -1);
+                    }
+                }
+                default -> ex.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private static byte[] readBody(HttpExchange ex) throws IOException {
+        byte[] raw = ex.getRequestBody().readAllBytes();
+        String sha = ex.getRequestHeaders().getFirst("x-amz-content-sha256");
+        return sha != null && sha.startsWith("STREAMING-") ? decodeChunked(raw) : raw;
+    }
+
+    // aws-chunked: "<hex size>;chunk-signature=...\r\n<data>\r\n" repeated, ending with a 0-size chunk
+    private static byte[] decodeChunked(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length);
+        int pos = 0;
+        while (pos < raw.length) {
+            int lineEnd = indexOfCrlf(raw, pos);
+            String header = new String(raw, pos, lineEnd - pos, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";", 2)[0].trim(), 16);
+            if (size == 0) {
+                break;
+            }
+            out.write(raw, lineEnd + 2, size);
+            pos = lineEnd + 2 + size + 2;
+        }
+        return out.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] raw, int from) {
+        for (int i = from; i < raw.length - 1; i++) {
+            if (raw[i] == '\r' && raw[i + 1] == '\n') return i;
+        }
+        return raw.length;
+    }
+
+    private static void notFound(HttpExchange ex) throws IOException {
+        xml(ex, 404, "<Error><Code>NoSuchKey</Code><Message>The specified key does not exist.</Message></Error>");
+    }
+
+    private static void xml(HttpExchange ex, int status, String body) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + body).getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/xml");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String unescapeXml(String s) {
+        return s.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+}
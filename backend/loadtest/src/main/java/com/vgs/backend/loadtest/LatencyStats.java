@@ -0,0 +1,98 @@
+package com.vgs.backend.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-endpoint latency samples. Each client thread records into its own
+ * instance; {@link #merge} combines them once the run is over.
+ */
+class LatencyStats {
+
+    private final Map<String, Samples> byEndpoint = new TreeMap<>();
+
+    void record(String endpoint, long nanos, boolean ok) {
+        Samples s = byEndpoint.computeIfAbsent(endpoint, e -> new Samples());
+        s.add(nanos);
+        if (!ok) s.errors++;
+    }
+
+    void merge(LatencyStats other) {
+        other.byEndpoint.forEach((endpoint, samples) ->
+            byEndpoint.computeIfAbsent(endpoint, e -> new Samples()).addAll(samples));
+    }
+
+    void print(double seconds) {
+        System.out.printf("%n%-32s %9s %7s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        byEndpoint.forEach((endpoint, s) -> {
+            s.sort();
+            System.out.printf(Locale.ROOT, "%-32s %9d %7d %9.1f %9.2f %9.2f %9.2f%n",
+                endpoint, s.size, s.errors, s.size / seconds,
+                s.percentile(50) / 1e6, s.percentile(99) / 1e6, s.percentile(100) / 1e6);
+        });
+    }
+
+    void writeJson(Path file, double seconds, Map<String, Object> settings) throws IOException {
+        StringBuilder json = new StringBuilder("{\n  \"durationSeconds\": ")
+            .append(String.format(Locale.ROOT, "%.3f", seconds))
+            .append(",\n  \"settings\": {");
+        String sep = "";
+        for (Map.Entry<String, Object> e : settings.entrySet()) {
+            json.append(sep).append("\n    \"").append(e.getKey()).append("\": ").append(e.getValue());
+            sep = ",";
+        }
+        json.append("\n  },\n  \"endpoints\": [");
+        sep = "";
+        for (Map.Entry<String, Samples> e : byEndpoint.entrySet()) {
+            Samples s = e.getValue();
+            s.sort();
+            json.append(sep).append(String.format(Locale.ROOT,
+                "\n    {\"endpoint\": \"%s\", \"requests\": %d, \"errors\": %d, \"throughput\": %.2f, "
+                    + "\"p50Ms\": %.3f, \"p99Ms\": %.3f, \"maxMs\": %.3f}",
+                e.getKey(), s.size, s.errors, s.size / seconds,
+                s.percentile(50) / 1e6, s.percentile(99) / 1e6, s.percentile(100) / 1e6));
+            sep = ",";
+        }
+        json.append("\n  ]\n}\n");
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, json);
+    }
+
+    private static class Samples {
+        long[] nanos = new long[1024];
+        int size;
+        int errors;
+
+        void add(long value) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.nanos[i]);
+            }
+            errors += other.errors;
+        }
+
+        void sort() {
+            Arrays.sort(nanos, 0, size);
+        }
+
+        // nearest-rank on sorted samples
+        long percentile(double p) {
+            if (size == 0) return 0;
+            int rank = (int) Math.ceil(p / 100.0 * size);
+            return nanos[Math.max(0, Math.min(size, rank) - 1)];
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.vgs.backend.loadtest;
+
+import com.vgs.backend.BackendApplication;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load run: embedded mongod, in-memory S3, the backend on a local
+ * port, seeded data, then {@code loadtest.clients} concurrent users for
+ * {@code loadtest.duration-seconds}. Prints p50/p99 and throughput per
+ * endpoint and writes the same numbers as JSON to {@code loadtest.report}.
+ *
+ * Settings (system properties): loadtest.clients, loadtest.duration-seconds,
+ * loadtest.warmup-seconds, loadtest.schools, loadtest.users-per-school,
+ * loadtest.listings-per-school, loadtest.messages-per-school, loadtest.reactive,
+ * loadtest.tomcat-threads, loadtest.virtual-threads, loadtest.report.
+ *
+ * Blocking versus reactive reads: run once with {@code -Dloadtest.reactive=0} and
+ * once with {@code 1}, same clients and {@code loadtest.tomcat-threads}, and
+ * compare the two reports. Platform versus virtual threads works the same way
+ * with {@code loadtest.virtual-threads}.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        int clients = setting(settings, "clients", 32);
+        int durationSeconds = setting(settings, "duration-seconds", 60);
+        int warmupSeconds = setting(settings, "warmup-seconds", 10);
+        int schools = setting(settings, "schools", 5);
+        int usersPerSchool = setting(settings, "users-per-school", 200);
+        int listingsPerSchool = setting(settings, "listings-per-school", 5000);
+        int messagesPerSchool = setting(settings, "messages-per-school", 2000);
+        // 1 = feed, search and conversation reads go to the reactive NDJSON endpoints under /stream
+        boolean reactive = setting(settings, "reactive", 0) == 1;
+        // 0 = Tomcat's default; lower it to see where the blocking path runs out of request threads
+        int tomcatThreads = setting(settings, "tomcat-threads", 0);
+        // 1 = requests and fan-out on virtual threads (needs a Java 21+ runtime)
+        boolean virtualThreads = setting(settings, "virtual-threads", 0) == 1;
+        Path report = Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json"));
+
+        try (FakeS3Server s3 = new FakeS3Server();
+             TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V7_0)) {
+
+            ServerAddress mongo = mongod.current().getServerAddress();
+            int port = freePort();
+            ConfigurableApplicationContext app = new SpringApplicationBuilder(BackendApplication.class)
+                .properties(appProperties("mongodb://" + mongo.getHost() + ":" + mongo.getPort() + "/vgs-loadtest",
+                                          s3.endpoint(), port, tomcatThreads, virtualThreads))
+                .run();
+
+            try {
+                List<Seeder.School> seeded = new Seeder(app)
+                    .seed(schools, usersPerSchool, listingsPerSchool, messagesPerSchool);
+
+                ExecutorService httpPool = Executors.newFixedThreadPool(Math.max(4, clients / 4));
+                HttpClient http = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(httpPool)
+                    .build();
+                String baseUrl = "http://127.0.0.1:" + port;
+
+                if (warmupSeconds > 0) {
+                    System.out.println("🔥 warming up for " + warmupSeconds + "s");
+                    drive(http, baseUrl, seeded, clients, warmupSeconds, reactive);
+                }
+                System.out.println("🚀 " + clients + " clients for " + durationSeconds + "s");
+                long start = System.nanoTime();
+                LatencyStats stats = drive(http, baseUrl, seeded, clients, durationSeconds, reactive);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                stats.print(seconds);
+                System.out.println("\nS3 stand-in: " + s3.objectCount() + " objects, " + s3.requestCount() + " requests");
+                stats.writeJson(report, seconds, settings);
+                System.out.println("📄 report written to " + report.toAbsolutePath());
+                httpPool.shutdown();
+            } finally {
+                app.close();
+            }
+        }
+    }
+
+    private static LatencyStats drive(HttpClient http, String baseUrl, List<Seeder.School> schools,
+                                      int clients, int seconds, boolean reactive) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        Random random = new Random(7);
+        List<Workload> workloads = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            Seeder.School school = schools.get(i % schools.size());
+            String email = school.users.get(random.nextInt(school.users.size()));
+            Workload w = new Workload(http, baseUrl, school, email, deadline, random.nextLong(), reactive);
+            workloads.add(w);
+            pool.execute(w);
+        }
+        pool.shutdown();
+        pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+
+        LatencyStats merged = new LatencyStats();
+        workloads.forEach(w -> merged.merge(w.stats));
+        return merged;
+    }
+
+    private static Map<String, Object> appProperties(String mongoUri, String s3Endpoint, int port,
+                                                     int tomcatThreads, boolean virtualThreads) {
+        Map<String, Object> props = new HashMap<>();
+        props.put("server.port", port);
+        // nothing scrapes the actuator here, and a fixed management port would clash between runs
+        props.put("management.server.port", -1);
+        if (tomcatThreads > 0) {
+            props.put("server.tomcat.threads.max", tomcatThreads);
+        }
+        props.put("spring.threads.virtual.enabled", virtualThreads);
+        props.put("reactive.read-endpoints.enabled", true);
+        // Boot 4 reads spring.mongodb.*, earlier versions spring.data.mongodb.*
+        props.put("spring.mongodb.uri", mongoUri);
+        props.put("spring.data.mongodb.uri", mongoUri);
+        props.put("jwt.secret", Base64.getEncoder().encodeToString(new byte[64]));
+        props.put("aws.region", "us-east-1");
+        props.put("aws.accessKeyId", "loadtest");
+        props.put("aws.secretAccessKey", "loadtest");
+        props.put("aws.s3.bucket", "vgs-loadtest");
+        props.put("aws.s3.endpoint", s3Endpoint);
+        // outbox still runs end to end, the transport just keeps the mail in memory
+        props.put("email.transport", "memory");
+        // every simulated client shares 127.0.0.1, so per-IP auth limits would only measure the limiter
+        props.put("ratelimit.auth.login.ip", "1000000/s");
+        props.put("ratelimit.auth.signup.ip", "1000000/s");
+        return props;
+    }
+
+    private static int setting(Map<String, Object> settings, String name, int defaultValue) {
+        int value = Integer.getInteger("loadtest." + name, defaultValue);
+        settings.put(name, value);
+        return value;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.vgs.backend.loadtest;
+
+import com.vgs.backend.model.Listing;
+import com.vgs.backend.model.User;
+import com.vgs.backend.service.MessageService;
+import com.vgs.backend.util.PasswordHasher;
+import com.vgs.backend.util.SlugUtil;
+import com.vgs.backend.util.UniversityDomainMap;
+import com.vgs.backend.util.UniversityIndex;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes schools, users, listings and conversations straight through the
+ * application's own beans, so indexes, threads and caches look like they
+ * would after real traffic.
+ */
+class Seeder {
+
+    static final String PASSWORD = "LoadTest-Passw0rd!";
+
+    static final String[] ITEMS = {
+        "desk", "chair", "lamp", "couch", "bike", "textbook", "monitor", "microwave", "rug", "bookshelf",
+        "mattress", "sublet", "calculator", "kettle", "mirror", "fridge", "headphones", "printer"
+    };
+    static final String[] TAGS = {
+        "furniture", "electronics", "books", "kitchen", "sublet", "decor", "bikes", "appliances"
+    };
+    private static final String[] ADJECTIVES = {
+        "used", "like new", "vintage", "compact", "large", "mini", "ergonomic", "wooden", "foldable", "gaming"
+    };
+    private static final String[] WORDS = {
+        "great", "condition", "pickup", "campus", "moving", "out", "cheap", "barely", "works",
+        "perfectly", "must", "go", "by", "friday", "near", "library", "dorm", "clean", "smoke", "free"
+    };
+
+    static class School {
+        final String name;
+        final String domain;
+        final List<String> users = new ArrayList<>();
+        final List<String> listingIds = new ArrayList<>();
+
+        School(String name, String domain) {
+            this.name = name;
+            this.domain = domain;
+        }
+    }
+
+    private final MongoTemplate mongo;
+    private final MessageService messages;
+    private final UniversityIndex universities;
+    private final PasswordHasher passwords;
+    private final Random random = new Random(42);
+
+    Seeder(ApplicationContext app) {
+        this.mongo = app.getBean(MongoTemplate.class);
+        this.messages = app.getBean(MessageService.class);
+        this.universities = app.getBean(UniversityDomainMap.class).getIndex();
+        this.passwords = app.getBean(PasswordHasher.class);
+    }
+
+    List<School> seed(int schools, int usersPerSchool, int listingsPerSchool, int messagesPerSchool) {
+        String passwordHash = passwords.hash(PASSWORD).join();
+        List<School> seeded = new ArrayList<>();
+        int stride = Math.max(1, universities.size() / schools);
+
+        for (int id = 0; seeded.size() < schools && id < universities.size(); id += stride) {
+            if (universities.domains(id).isEmpty()) continue;
+            School school = new School(universities.name(id), universities.domains(id).get(0));
+            seeded.add(school);
+
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < usersPerSchool; i++) {
+                User u = new User();
+                u.setEmail("student" + i + "@" + school.domain);
+                u.setFirstName("Student" + i);
+                u.setLastName(school.domain);
+                u.setUniversity(school.name);
+                u.setPasswordHash(passwordHash);
+                u.setVerified(true);
+                u.setPofilePictureLink("/src/assets/default_profile.png");
+                users.add(u);
+                school.users.add(u.getEmail());
+            }
+            mongo.insertAll(users);
+
+            List<Listing> batch = new ArrayList<>();
+            for (int i = 0; i < listingsPerSchool; i++) {
+                batch.add(listing(school, i));
+                if (batch.size() == 1000 || i == listingsPerSchool - 1) {
+                    for (Listing saved : mongo.insertAll(batch)) {
+                        school.listingIds.add(saved.getId());
+                    }
+                    batch.clear();
+                }
+            }
+
+            // conversations cluster around a few pairs per user, like real inboxes
+            for (int i = 0; i < messagesPerSchool; i++) {
+                String from = school.users.get(random.nextInt(school.users.size()));
+                String to = school.users.get(random.nextInt(Math.min(school.users.size(), 20)));
+                if (!from.equals(to)) {
+                    messages.sendMessage(from, to, "is the " + pick(ITEMS) + " still available?");
+                }
+            }
+            System.out.printf("🌱 seeded %s: %d users, %d listings, %d messages%n",
+                school.name, usersPerSchool, listingsPerSchool, messagesPerSchool);
+        }
+        return seeded;
+    }
+
+    private Listing listing(School school, int i) {
+        String item = pick(ITEMS);
+        StringBuilder description = new StringBuilder();
+        for (int w = 0; w < 20; w++) {
+            description.append(pick(WORDS)).append(' ');
+        }
+
+        Listing l = new Listing();
+        l.setTitle(pick(ADJECTIVES) + " " + item);
+        l.setDescription(description.append(item).toString());
+        l.setPrice(Math.round(random.nextDouble() * 50_000) / 100.0);
+        l.setOwnerId(school.users.get(random.nextInt(school.users.size())));
+        l.setSchoolId(school.name);
+        l.setTags(List.of(pick(TAGS), pick(TAGS)));
+        l.setImageUrls(List.of("/" + SlugUtil.slugify(school.name) + "/seed-" + i + ".jpg"));
+        l.setDatePosted(LocalDateTime.now().minusMinutes(random.nextInt(60 * 24 * 90)));
+        return l;
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,247 @@
+package com.vgs.backend.loadtest;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One simulated user: logs in, then picks weighted operations until the
+ * deadline. Every request goes over HTTP through the full filter chain.
+ */
+class Workload implements Runnable {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern KEY = Pattern.compile("\"key\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern UPLOAD_URL = Pattern.compile("\"uploadUrl\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static final byte[] PHOTO = syntheticPhoto();
+
+    enum Op {
+        SEARCH(30), FEED(20), LISTING(15), THREADS(10), CONVERSATION(8), SEND(7), MINE(4), LOGIN(3), UPLOAD(2), SIGNUP(1);
+
+        final int weight;
+
+        Op(int weight) {
+            this.weight = weight;
+        }
+
+        static Op pick(Random random) {
+            int total = 0;
+            for (Op op : values()) total += op.weight;
+            int roll = random.nextInt(total);
+            for (Op op : values()) {
+                roll -= op.weight;
+                if (roll < 0) return op;
+            }
+            return SEARCH;
+        }
+    }
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Seeder.School school;
+    private final String email;
+    private final long deadlineNanos;
+    private final Random random;
+    private final boolean reactive;
+    final LatencyStats stats = new LatencyStats();
+
+    private String token;
+
+    Workload(HttpClient http, String baseUrl, Seeder.School school, String email, long deadlineNanos, long seed,
+             boolean reactive) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.school = school;
+        this.email = email;
+        this.deadlineNanos = deadlineNanos;
+        this.random = new Random(seed);
+        this.reactive = reactive;
+    }
+
+    @Override
+    public void run() {
+        login();
+        while (System.nanoTime() < deadlineNanos) {
+            try {
+                step(Op.pick(random));
+            } catch (IOException e) {
+                stats.record("io-error", 0, false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void step(Op op) throws IOException, InterruptedException {
+        switch (op) {
+            case SEARCH -> {
+                String query = "?title=" + encode(Seeder.ITEMS[random.nextInt(Seeder.ITEMS.length)]);
+                if (random.nextInt(4) == 0) query += "&tags=" + Seeder.TAGS[random.nextInt(Seeder.TAGS.length)];
+                if (random.nextInt(4) == 0) query += "&maxPrice=" + (50 + random.nextInt(400));
+                if (random.nextInt(5) == 0) query += "&sort=price_asc";
+                // the stream has no relevance ranking, so its text queries run as Mongo filters
+                read("GET {prefix}/listings/search", "/listings/search" + query + "&limit=20");
+            }
+            case FEED -> read("GET {prefix}/listings/university",
+                "/listings/university?limit=20" + (random.nextInt(3) == 0 ? "&sort=price_asc" : ""));
+            case LISTING -> get("GET /listings/{id}",
+                "/listings/" + school.listingIds.get(random.nextInt(school.listingIds.size())));
+            case MINE -> get("GET /listings/me", "/listings/me");
+            case THREADS -> get("GET /messages/threads", "/messages/threads");
+            case CONVERSATION -> read("GET {prefix}/messages/with/{user}", "/messages/with/" + encode(otherUser()));
+            case SEND -> send("POST /messages/{user}", authed("/messages/" + encode(otherUser()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"text\":\"still available? (" + random.nextInt(1000) + ")\"}")));
+            case LOGIN -> login();
+            case UPLOAD -> upload();
+            case SIGNUP -> signup();
+        }
+    }
+
+    private void login() {
+        try {
+            HttpResponse<String> res = send("POST /auth/login", request("/auth/login")
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(form("email", email, "password", Seeder.PASSWORD)));
+            Matcher m = TOKEN.matcher(res.body());
+            if (m.find()) {
+                token = m.group(1);
+            }
+        } catch (IOException e) {
+            stats.record("io-error", 0, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void signup() throws IOException, InterruptedException {
+        String address = "lt-" + UUID.randomUUID().toString().substring(0, 12) + "@" + school.domain;
+        send("POST /auth/signup", request("/auth/signup")
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(form("first", "Load", "last", "Test", "email", address,
+                       "password", Seeder.PASSWORD, "university", school.name)));
+    }
+
+    // presign one to three photos, PUT the bytes to the S3 stand-in, then finalize
+    private void upload() throws IOException, InterruptedException {
+        int photos = 1 + random.nextInt(3);
+        StringBuilder slotRequest = new StringBuilder("[");
+        for (int i = 0; i < photos; i++) {
+            if (i > 0) slotRequest.append(',');
+            slotRequest.append("{\"filename\":\"photo.jpg\",\"contentType\":\"image/jpeg\"}");
+        }
+        HttpResponse<String> slots = send("POST /listings/uploads", authed("/listings/uploads")
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(slotRequest.append(']').toString())));
+        Matcher key = KEY.matcher(slots.body());
+        Matcher url = UPLOAD_URL.matcher(slots.body());
+
+        List<String> keys = new ArrayList<>();
+        while (key.find() && url.find()) {
+            HttpResponse<String> put = send("PUT s3 (presigned)", HttpRequest.newBuilder(URI.create(url.group(1)))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "image/jpeg")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(PHOTO)));
+            if (put.statusCode() >= 300) {
+                return;
+            }
+            keys.add("\"" + key.group(1) + "\"");
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        String item = Seeder.ITEMS[random.nextInt(Seeder.ITEMS.length)];
+        send("POST /listings/finalize", authed("/listings/finalize")
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(
+                "{\"title\":\"load test " + item + "\",\"description\":\"posted by the load test\","
+                    + "\"price\":" + (5 + random.nextInt(300)) + ",\"tags\":[\"" + Seeder.TAGS[random.nextInt(Seeder.TAGS.length)]
+                    + "\"],\"imageKeys\":[" + String.join(",", keys) + "]}")));
+    }
+
+    // the same read on the blocking endpoint or, in reactive runs, its NDJSON twin under /stream
+    private HttpResponse<String> read(String endpoint, String path) throws IOException, InterruptedException {
+        String prefix = reactive ? "/stream" : "";
+        return send(endpoint.replace("{prefix}", prefix), authed(prefix + path)
+            .header("Accept", reactive ? "application/x-ndjson" : "application/json")
+            .GET());
+    }
+
+    private HttpResponse<String> get(String endpoint, String path) throws IOException, InterruptedException {
+        return send(endpoint, authed(path).GET());
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest.Builder request)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> res = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        stats.record(endpoint, System.nanoTime() - start, res.statusCode() < 400);
+        return res;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+    }
+
+    private HttpRequest.Builder authed(String path) {
+        return request(path).header("Authorization", "Bearer " + token);
+    }
+
+    private String otherUser() {
+        List<String> users = school.users;
+        String other = users.get(random.nextInt(Math.min(users.size(), 20)));
+        return other.equals(email) ? users.get((users.indexOf(other) + 1) % users.size()) : other;
+    }
+
+    private static HttpRequest.BodyPublisher form(String... pairs) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) body.append('&');
+            body.append(encode(pairs[i])).append('=').append(encode(pairs[i + 1]));
+        }
+        return HttpRequest.BodyPublishers.ofString(body.toString());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    // a phone-sized photo so the rendition pipeline does representative work
+    private static byte[] syntheticPhoto() {
+        BufferedImage image = new BufferedImage(2016, 1512, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.DARK_GRAY);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setColor(Color.ORANGE);
+        g.fillOval(400, 300, 1200, 900);
+        g.dispose();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpeg", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
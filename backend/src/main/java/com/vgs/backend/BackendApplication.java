@@ -2,11 +2,21 @@ package com.vgs.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.data.mongodb.autoconfigure.DataMongoReactiveAutoConfiguration;
+import org.springframework.boot.data.mongodb.autoconfigure.DataMongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.mongodb.autoconfigure.MongoReactiveAutoConfiguration;
+import org.springframework.context.annotation.PropertySource;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @EnableScheduling
-@SpringBootApplication
+// the reactive Mongo stack is opt-in, see ReactiveMongoConfig
+@SpringBootApplication(exclude = {
+	MongoReactiveAutoConfiguration.class,
+	DataMongoReactiveAutoConfiguration.class,
+	DataMongoReactiveRepositoriesAutoConfiguration.class
+})
+@PropertySource("classpath:vgs-defaults.properties")
 public class BackendApplication {
 
 	public static void main(String[] args) {
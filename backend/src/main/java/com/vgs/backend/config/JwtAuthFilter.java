@@ -1,6 +1,8 @@
 package com.vgs.backend.config;
 
+import com.vgs.backend.model.AuthUser;
 import com.vgs.backend.util.JwtUtil;
+import com.vgs.backend.util.SchoolTags;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,23 +20,36 @@ import java.util.Collections;
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    // the only endpoint that may pass its token as a query parameter
+    private static final String STREAM_PATH = "/messages/stream";
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private SchoolTags schoolTags;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain)
                                     throws ServletException, IOException {
 
+        String token = null;
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
+            token = authHeader.substring(7);
+        } else if (STREAM_PATH.equals(request.getServletPath())) {
+            token = request.getParameter("access_token");
+        }
+        if (token != null) {
             try {
-                String email = jwtUtil.validateTokenAndGetEmail(token);
-                if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                AuthUser user = jwtUtil.verify(token);
+                // lets request metrics and repository timers tag by school
+                request.setAttribute(SchoolTags.REQUEST_ATTRIBUTE, schoolTags.tagFor(user.getUniversity()));
+                if (user.getEmail() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                     UsernamePasswordAuthenticationToken authToken =
-                    new UsernamePasswordAuthenticationToken(email, null, Collections.emptyList());
+                    new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
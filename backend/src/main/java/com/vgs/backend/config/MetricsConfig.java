@@ -0,0 +1,97 @@
+package com.vgs.backend.config;
+
+import com.vgs.backend.util.SchoolTags;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.mongodb.autoconfigure.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactoryBean;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics beyond what the actuator records on its own: a bounded school tag
+ * on http.server.requests, a timer around every repository method, the
+ * slow Mongo command log and the unindexed query log.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // http.server.requests already has method, uri, status and outcome
+    @Bean
+    public ServerRequestObservationConvention schoolTaggingRequestConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object school = context.getCarrier().getAttribute(SchoolTags.REQUEST_ATTRIBUTE);
+                return super.getLowCardinalityKeyValues(context)
+                    .and("school", school instanceof String ? (String) school : SchoolTags.NONE);
+            }
+        };
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowMongoCommandLog(
+            @Value("${mongodb.slow-command.threshold-ms}") long thresholdMillis,
+            MeterRegistry registry) {
+        SlowMongoCommandListener listener = new SlowMongoCommandListener(thresholdMillis, registry);
+        return settings -> settings.addCommandListener(listener);
+    }
+
+    // index layouts are filled in by IndexBootstrap once the client is up
+    @Bean
+    public UnindexedQueryListener unindexedQueryListener(MeterRegistry registry) {
+        return new UnindexedQueryListener(registry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer unindexedQueryLog(UnindexedQueryListener listener) {
+        return settings -> settings.addCommandListener(listener);
+    }
+
+    /**
+     * Times every blocking Spring Data repository call as
+     * mongodb.repository.invocations, tagged by repository, method, school and
+     * outcome. Reactive repositories are left out: their methods return before
+     * the query runs, so the timer would only measure assembling the Flux.
+     * Static so it is registered before the repository factory beans are created.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMetrics(ObjectProvider<MeterRegistry> registry,
+                                                      ObjectProvider<SchoolTags> schoolTags) {
+        RepositoryMethodInvocationListener listener = invocation -> {
+            String outcome = invocation.getResult() == null
+                ? "unknown"
+                : invocation.getResult().getState().name().toLowerCase(Locale.ROOT);
+            Timer.builder("mongodb.repository.invocations")
+                .tag("repository", invocation.getRepositoryInterface().getSimpleName())
+                .tag("method", invocation.getMethod().getName())
+                .tag("school", schoolTags.getObject().current())
+                .tag("outcome", outcome)
+                .register(registry.getObject())
+                .record(invocation.getDuration(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        };
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport && !(bean instanceof ReactiveMongoRepositoryFactoryBean)) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean)
+                        .addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(listener));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.vgs.backend.config;
+
+import com.vgs.backend.util.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the auth endpoints per client IP and per submitted email before
+ * anything reaches BCrypt or Mongo. Policies come from
+ * {@code ratelimit.<route>.<ip|email>} such as {@code ratelimit.auth.login.ip=30/m};
+ * a route or key without a property is not limited.
+ *
+ * The IP is {@link HttpServletRequest#getRemoteAddr()}, which with
+ * {@code server.forward-headers-strategy=native} is the client address from
+ * {@code X-Forwarded-For} when, and only when, the request came through a
+ * trusted proxy ({@code server.tomcat.remoteip.internal-proxies}).
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final List<String> ROUTES = List.of(
+        "/auth/login", "/auth/signup", "/auth/vcode", "/auth/verify",
+        "/auth/forgot-password", "/auth/reset-password"
+    );
+
+    private final MeterRegistry registry;
+    private final Map<String, List<Limit>> limitsByRoute = new HashMap<>();
+
+    public RateLimitFilter(RateLimiter rateLimiter, Environment env, MeterRegistry registry) {
+        this.registry = registry;
+        for (String route : ROUTES) {
+            String prefix = "ratelimit" + route.replace('/', '.');
+            List<Limit> limits = new ArrayList<>();
+            for (String keyType : List.of("ip", "email")) {
+                String spec = env.getProperty(prefix + "." + keyType);
+                if (spec != null && !spec.isBlank()) {
+                    RateLimiter.Policy policy = rateLimiter.policy(route + " " + keyType, spec);
+                    registry.gauge("ratelimit.keys", Tags.of("route", route, "key", keyType),
+                                   policy, RateLimiter.Policy::size);
+                    limits.add(new Limit(keyType, policy));
+                }
+            }
+            if (!limits.isEmpty()) {
+                limitsByRoute.put(route, limits);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !limitsByRoute.containsKey(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+                                    throws ServletException, IOException {
+        String route = request.getServletPath();
+        for (Limit limit : limitsByRoute.get(route)) {
+            String key = "ip".equals(limit.keyType)
+                ? request.getRemoteAddr()
+                : request.getParameter("email");
+            if (key == null || key.isBlank()) {
+                continue;
+            }
+            long waitNanos = limit.policy.tryAcquire(key.trim().toLowerCase(Locale.ROOT));
+            if (waitNanos > 0) {
+                registry.counter("ratelimit.rejected", "route", route, "key", limit.keyType).increment();
+                long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+                response.setHeader("Retry-After", Long.toString(retryAfter));
+                response.sendError(429, "Too many requests, try again in " + retryAfter + "s");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static class Limit {
+        final String keyType;
+        final RateLimiter.Policy policy;
+
+        Limit(String keyType, RateLimiter.Policy policy) {
+            this.keyType = keyType;
+            this.policy = policy;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.vgs.backend.config;
+
+import com.vgs.backend.repository.ReactiveListingRepository;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.data.mongodb.autoconfigure.DataMongoReactiveAutoConfiguration;
+import org.springframework.boot.mongodb.autoconfigure.MongoReactiveAutoConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+/**
+ * The reactive Mongo client, template and repositories, only created when
+ * {@code reactive.read-endpoints.enabled} is on. Their auto-configuration is
+ * excluded in {@link com.vgs.backend.BackendApplication}, so by default no
+ * second connection pool is opened for endpoints that aren't served.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactive.read-endpoints.enabled", havingValue = "true")
+@ImportAutoConfiguration({MongoReactiveAutoConfiguration.class, DataMongoReactiveAutoConfiguration.class})
+@EnableReactiveMongoRepositories(basePackageClasses = ReactiveListingRepository.class)
+public class ReactiveMongoConfig {
+}
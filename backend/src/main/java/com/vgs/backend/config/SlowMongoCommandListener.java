@@ -0,0 +1,119 @@
+package com.vgs.backend.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs Mongo commands that take longer than the threshold, with the
+ * collection and the field names the command filtered on, and counts them.
+ * Values are never read or logged: filters carry tokens, codes and password
+ * hashes. Nothing is rendered unless the command turns out to be slow.
+ */
+public class SlowMongoCommandListener implements CommandListener {
+
+    private final long thresholdNanos;
+    private final MeterRegistry registry;
+
+    // field names of each in-flight command; the event's document is only valid during the callback
+    private final Map<Integer, Shape> inFlight = new ConcurrentHashMap<>();
+
+    public SlowMongoCommandListener(long thresholdMillis, MeterRegistry registry) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.registry = registry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        String name = event.getCommandName();
+        String collection = command.isString(name) ? command.getString(name).getValue() : "";
+
+        Set<String> fields = new LinkedHashSet<>();
+        switch (name) {
+            case "find":
+                filterFields(command.get("filter"), fields);
+                break;
+            case "count":
+            case "findAndModify":
+                filterFields(command.get("query"), fields);
+                break;
+            case "update":
+            case "delete":
+                BsonValue statements = command.get(name.equals("update") ? "updates" : "deletes");
+                if (statements != null && statements.isArray()) {
+                    for (BsonValue statement : statements.asArray()) {
+                        if (statement.isDocument()) {
+                            filterFields(statement.asDocument().get("q"), fields);
+                        }
+                    }
+                }
+                break;
+            case "aggregate":
+                // stage names, plus the fields of any $match
+                BsonValue pipeline = command.get("pipeline");
+                if (pipeline != null && pipeline.isArray()) {
+                    for (BsonValue stage : pipeline.asArray()) {
+                        if (stage.isDocument() && !stage.asDocument().isEmpty()) {
+                            String op = stage.asDocument().getFirstKey();
+                            fields.add(op);
+                            if (op.equals("$match")) {
+                                filterFields(stage.asDocument().get(op), fields);
+                            }
+                        }
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        inFlight.put(event.getRequestId(), new Shape(collection, fields));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        finish(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), "success");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        finish(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), "error");
+    }
+
+    private void finish(int requestId, String commandName, long elapsedNanos, String outcome) {
+        Shape shape = inFlight.remove(requestId);
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        registry.counter("mongodb.slow.commands", "command", commandName, "outcome", outcome).increment();
+        System.out.println("🐢 slow mongo " + commandName + " (" + outcome + ") "
+                           + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + "ms: "
+                           + (shape == null ? "" : shape.collection + " " + shape.fields));
+    }
+
+    private static void filterFields(BsonValue filter, Set<String> fields) {
+        if (filter != null && filter.isDocument()) {
+            UnindexedQueryListener.collectFields(filter.asDocument(), fields);
+        }
+    }
+
+    private static class Shape {
+        final String collection;
+        final Set<String> fields;
+
+        Shape(String collection, Set<String> fields) {
+            this.collection = collection;
+            this.fields = fields;
+        }
+    }
+}
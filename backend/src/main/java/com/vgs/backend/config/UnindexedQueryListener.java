@@ -0,0 +1,114 @@
+package com.vgs.backend.config;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports query shapes that no index can serve. For every filtered read,
+ * update or delete it collects the filtered fields and checks that some index
+ * on the collection starts with one of them (or that {@code _id} is among
+ * them). Each unsupported shape (collection plus field names, values
+ * ignored) is logged once and counted as {@code mongodb.query.unindexed}.
+ *
+ * Index layouts come from {@link com.vgs.backend.service.IndexBootstrap};
+ * collections it hasn't reported yet are not checked.
+ */
+public class UnindexedQueryListener implements CommandListener {
+
+    private final MeterRegistry registry;
+    // collection -> leading field of each index
+    private final Map<String, Set<String>> leadingFields = new ConcurrentHashMap<>();
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+
+    public UnindexedQueryListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void indexesFor(String collection, List<List<String>> indexKeys) {
+        Set<String> leading = new TreeSet<>();
+        for (List<String> keys : indexKeys) {
+            if (!keys.isEmpty()) {
+                leading.add(keys.get(0));
+            }
+        }
+        leadingFields.put(collection, leading);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        String name = event.getCommandName();
+        if (!command.isString(name)) {
+            return;
+        }
+        String collection = command.getString(name).getValue();
+        Set<String> leading = leadingFields.get(collection);
+        if (leading == null) {
+            return;
+        }
+
+        switch (name) {
+            case "find":
+            case "count":
+            case "findAndModify":
+                check(collection, leading, command.get(name.equals("find") ? "filter" : "query"));
+                break;
+            case "update":
+            case "delete":
+                BsonValue statements = command.get(name.equals("update") ? "updates" : "deletes");
+                if (statements instanceof BsonArray) {
+                    for (BsonValue statement : (BsonArray) statements) {
+                        if (statement.isDocument()) {
+                            check(collection, leading, statement.asDocument().get("q"));
+                        }
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void check(String collection, Set<String> leading, BsonValue filter) {
+        if (filter == null || !filter.isDocument() || filter.asDocument().isEmpty()) {
+            // unfiltered commands (counts, bulk clears) scan on purpose
+            return;
+        }
+        Set<String> fields = new TreeSet<>();
+        collectFields(filter.asDocument(), fields);
+        if (fields.contains("_id") || fields.stream().anyMatch(leading::contains)) {
+            return;
+        }
+        String shape = collection + " " + fields;
+        if (reported.add(shape)) {
+            registry.counter("mongodb.query.unindexed", "collection", collection).increment();
+            System.out.println("⚠️ no index supports mongo query on " + shape);
+        }
+    }
+
+    // top-level field names, looking through $and / $or / $nor
+    static void collectFields(BsonDocument filter, Set<String> fields) {
+        for (Map.Entry<String, BsonValue> entry : filter.entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith("$")) {
+                fields.add(key);
+            } else if (entry.getValue().isArray()) {
+                for (BsonValue clause : entry.getValue().asArray()) {
+                    if (clause.isDocument()) {
+                        collectFields(clause.asDocument(), fields);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,22 +1,45 @@
 package com.vgs.backend.controller;
 
+import com.vgs.backend.model.AuthUser;
 import com.vgs.backend.model.Listing;
+import com.vgs.backend.model.ListingImage;
+import com.vgs.backend.model.ListingPage;
+import com.vgs.backend.repository.ListingCursor;
 import com.vgs.backend.repository.ListingRepository;
+import com.vgs.backend.repository.ListingSort;
+import com.vgs.backend.service.ImagePipeline;
+import com.vgs.backend.service.ListingFeedCache;
+import com.vgs.backend.service.ListingSearchIndex;
+import com.vgs.backend.service.S3CleanupService;
 import com.vgs.backend.service.S3Service;
-import com.vgs.backend.util.JwtUtil;
+import com.vgs.backend.util.ETags;
+import com.vgs.backend.util.FanOut;
 import com.vgs.backend.util.SlugUtil;
-import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -24,51 +47,193 @@ import java.util.stream.Collectors;
 @RequestMapping("/listings")
 public class ListingController {
 
-    private final JwtUtil jwtUtil;
+    private static final int MAX_IMAGES = 5;
+
     private final S3Service s3Service;
+    private final S3CleanupService s3Cleanup;
     private final ListingRepository listingRepository;
+    private final ListingSearchIndex searchIndex;
+    private final ImagePipeline imagePipeline;
+    private final ListingFeedCache feedCache;
+    private final FanOut fanOut;
+
+    @Value("${listings.upload.url-ttl-seconds}")
+    private long uploadUrlTtlSeconds;
+
+    @Value("${listings.upload.max-image-bytes}")
+    private long maxImageBytes;
+
+    @Value("${listings.upload.orphan-grace-seconds}")
+    private long orphanGraceSeconds;
+
+    @Value("${listings.page.default-size}")
+    private int defaultPageSize;
 
-    @Value("${aws.s3.bucket}")
-    private String bucket;
+    @Value("${listings.page.max-size}")
+    private int maxPageSize;
 
-    public ListingController(JwtUtil jwtUtil,
-                             S3Service s3Service,
-                             ListingRepository listingRepository) {
-        this.jwtUtil = jwtUtil;
+    public ListingController(S3Service s3Service,
+                             S3CleanupService s3Cleanup,
+                             ListingRepository listingRepository,
+                             ListingSearchIndex searchIndex,
+                             ImagePipeline imagePipeline,
+                             ListingFeedCache feedCache,
+                             FanOut fanOut) {
         this.s3Service = s3Service;
+        this.s3Cleanup = s3Cleanup;
         this.listingRepository = listingRepository;
+        this.searchIndex = searchIndex;
+        this.imagePipeline = imagePipeline;
+        this.feedCache = feedCache;
+        this.fanOut = fanOut;
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public Listing createListing(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal AuthUser user,
             @RequestParam String title,
             @RequestParam String description,
             @RequestParam double price,
             @RequestParam("images") List<MultipartFile> images,
             @RequestParam(value = "tags", required = false) List<String> tags
     ) {
-        if (images.size() > 5) {
+        if (images.size() > MAX_IMAGES) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot upload more than 5 images");
         }
 
-        // extract and parse JWT
-        String token = authHeader.replace("Bearer ", "");
-        Claims claims = jwtUtil.getAllClaims(token);
-        String email = claims.getSubject();
-        String university = claims.get("university", String.class);
+        String email = user.getEmail();
+        String university = user.getUniversity();
         String slug = SlugUtil.slugify(university);
 
-        // upload each image under "<slug>/..."
-        List<String> urls = new ArrayList<>();
+        // upload all images concurrently under "<slug>/..."
+        List<String> keys = new ArrayList<>();
         for (MultipartFile image : images) {
             String filename = UUID.randomUUID() + "-" + image.getOriginalFilename();
-            String key = slug + "/" + filename;
-            String url = s3Service.uploadFile(image, key);
-            urls.add(url);
+            keys.add(slug + "/" + filename);
+        }
+        List<String> urls = s3Service.uploadFiles(images, keys);
+
+        return saveListing(email, university, title, description, price, urls, tags);
+    }
+
+    /**
+     * Step 1 of a direct upload: presigned PUT URLs under the caller's own
+     * folder, {@code <school slug>/<owner tag>/}. The browser sends the bytes
+     * straight to S3, then calls /finalize. Every key is queued for deletion
+     * once the URL has expired plus a grace period; finalizing takes it off
+     * that queue, so abandoned uploads don't linger in the bucket.
+     */
+    @PostMapping("/uploads")
+    public List<UploadSlot> requestUploads(
+            @AuthenticationPrincipal AuthUser user,
+            @RequestBody List<UploadRequest> files
+    ) {
+        if (files.isEmpty() || files.size() > MAX_IMAGES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Can upload 1 to 5 images");
+        }
+        String folder = uploadFolder(user);
+
+        List<UploadSlot> slots = new ArrayList<>();
+        for (UploadRequest file : files) {
+            if (!isImage(file.getContentType())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only images can be uploaded");
+            }
+            String key = folder + UUID.randomUUID() + "-" + safeFilename(file.getFilename());
+            String url = s3Service.presignUpload(key, file.getContentType(), Duration.ofSeconds(uploadUrlTtlSeconds));
+            slots.add(new UploadSlot(key, url));
+        }
+        s3Cleanup.enqueueAt(slots.stream().map(UploadSlot::getKey).collect(Collectors.toList()),
+            Instant.now().plusSeconds(uploadUrlTtlSeconds + orphanGraceSeconds));
+        return slots;
+    }
+
+    /** Step 2 of a direct upload: check the objects landed and create the listing. */
+    @PostMapping(path = "/finalize", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Listing finalizeListing(
+            @AuthenticationPrincipal AuthUser user,
+            @RequestBody FinalizeRequest req
+    ) {
+        List<String> keys = req.getImageKeys() != null ? req.getImageKeys() : Collections.emptyList();
+        if (keys.isEmpty() || keys.size() > MAX_IMAGES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Can attach 1 to 5 images");
+        }
+        if (new HashSet<>(keys).size() != keys.size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Each image can only be attached once");
+        }
+        if (req.getPrice() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Price is required");
         }
 
-        // build and save listing
+        // only keys issued to this user: nobody else's uploads can be published (or later deleted) through a listing
+        String folder = uploadFolder(user);
+        for (String key : keys) {
+            if (!key.startsWith(folder) || key.indexOf('/', folder.length()) >= 0 || key.contains("..")) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Image is not in your upload folder");
+            }
+        }
+
+        // take the keys off the orphan queue first; a deletion that is already due means the upload expired
+        if (s3Cleanup.cancel(keys) != keys.size()) {
+            discardLater(keys);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Upload expired, please upload the images again");
+        }
+
+        List<String> urls = new ArrayList<>();
+        try {
+            // one HEAD per image, all in flight at once
+            List<Optional<S3Service.StoredObject>> objects = fanOut.map(keys, s3Service::head);
+            for (int i = 0; i < keys.size(); i++) {
+                String key = keys.get(i);
+                S3Service.StoredObject object = objects.get(i).orElseThrow(() ->
+                    new ResponseStatusException(HttpStatus.BAD_REQUEST, "Image was not uploaded: " + key));
+                if (object.getSize() > maxImageBytes) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Image is too large: " + key);
+                }
+                if (!isImage(object.getContentType())) {
+                    throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Not an image: " + key);
+                }
+                urls.add(s3Service.urlFor(key));
+            }
+        } catch (RuntimeException e) {
+            // rejected uploads go back on the queue (a PUT may still land while its URL is valid)
+            discardLater(keys);
+            throw e;
+        }
+
+        return saveListing(user.getEmail(), user.getUniversity(),
+                req.getTitle(), req.getDescription(), req.getPrice(), urls, req.getTags());
+    }
+
+    private void discardLater(List<String> keys) {
+        s3Cleanup.enqueueAt(keys, Instant.now().plusSeconds(uploadUrlTtlSeconds));
+    }
+
+    // "<school slug>/<owner tag>/": the tag is derived from the email so keys don't expose it
+    private static String uploadFolder(AuthUser user) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(user.getEmail().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            StringBuilder tag = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                tag.append(String.format("%02x", digest[i]));
+            }
+            return SlugUtil.slugify(user.getUniversity()) + "/" + tag + "/";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isImage(String contentType) {
+        return contentType != null && contentType.startsWith("image/");
+    }
+
+    private Listing saveListing(String email,
+                                String university,
+                                String title,
+                                String description,
+                                double price,
+                                List<String> urls,
+                                List<String> tags) {
         Listing listing = new Listing();
         listing.setTitle(title);
         listing.setDescription(description);
@@ -79,97 +244,251 @@ public class ListingController {
         listing.setTags(tags != null ? tags : Collections.emptyList());
         listing.setDatePosted(LocalDateTime.now());
 
-        return listingRepository.save(listing);
+        Listing saved = listingRepository.save(listing);
+        searchIndex.add(saved);
+        feedCache.invalidate(university);
+        imagePipeline.submit(saved);
+        return saved;
     }
 
     @GetMapping("/search")
-    public List<Listing> searchListings(
-        @RequestHeader("Authorization") String authHeader,
+    public ListingPage searchListings(
+        @AuthenticationPrincipal AuthUser user,
         @RequestParam(required = false) String title,
         @RequestParam(required = false) List<String> tags,
         @RequestParam(required = false) Double minPrice,
-        @RequestParam(required = false) Double maxPrice
+        @RequestParam(required = false) Double maxPrice,
+        @RequestParam(required = false) String sort,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
     ) {
-        // 1) extract the user’s university from JWT
-        String token = authHeader.replace("Bearer ", "");
-        Claims claims = jwtUtil.getAllClaims(token);
-        String university = claims.get("university", String.class);
+        // 1) searches are scoped to the caller's university
+        String university = user.getUniversity();
 
-        // 2) load everything in that university
-        List<Listing> base = listingRepository.findBySchoolId(university);
+        // 2) free-text queries are ranked by the in-memory index unless a sort was asked for
+        ListingSort order = sort == null && title != null && !title.isBlank()
+            ? ListingSort.RELEVANCE
+            : parseSort(sort);
+        ListingCursor position = parseCursor(cursor, order);
+        if (order == ListingSort.RELEVANCE) {
+            return rankedSearch(university, title, tags, minPrice, maxPrice, position, pageSize(limit));
+        }
 
-        // 3) in‐memory filter chain (for simplicity; for large datasets swap to MongoTemplate)
-        return base.stream()
-        .filter(l -> title == null
-            || l.getTitle().toLowerCase().contains(title.toLowerCase()))
-        .filter(l -> tags == null || tags.isEmpty()
-            || l.getTags().stream().anyMatch(tags::contains))
-        .filter(l -> minPrice == null || l.getPrice() >= minPrice)
-        .filter(l -> maxPrice == null || l.getPrice() <= maxPrice)
-        .collect(Collectors.toList());
+        // 3) otherwise let Mongo apply the filters against the school's indexes
+        return listingRepository.search(university, title, tags, minPrice, maxPrice,
+                order, position, pageSize(limit));
     }
 
     @GetMapping("/university")
-    public List<Listing> listByUniversity(
-            @RequestHeader("Authorization") String authHeader
+    public ResponseEntity<ListingPage> listByUniversity(
+            @AuthenticationPrincipal AuthUser user,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request
     ) {
-        String token = authHeader.replace("Bearer ", "");
-        Claims claims = jwtUtil.getAllClaims(token);
-        String university = claims.get("university", String.class);
+        String university = user.getUniversity();
 
-        return listingRepository.findBySchoolId(university);
+        ListingSort order = parseFeedSort(sort);
+        ListingCursor position = parseCursor(cursor, order);
+        int size = pageSize(limit);
+
+        // the feed version changes with every listing written to the school, so it validates any page of it
+        long version = feedCache.version(university);
+        String page = order + "|" + (cursor == null ? "" : cursor) + "|" + size;
+        String etag = ETags.strong(university, version, page);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return revalidated(etag, feedCache.page(university, version, page,
+                () -> listingRepository.findPageBySchoolId(university, order, position, size)));
     }
 
     @GetMapping("/me")
-    public List<Listing> listMyListings(
-        @RequestHeader("Authorization") String authHeader
+    public ListingPage listMyListings(
+        @AuthenticationPrincipal AuthUser user,
+        @RequestParam(required = false) String sort,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
     ) {
-        String token = authHeader.replace("Bearer ", "");
-        Claims claims = jwtUtil.getAllClaims(token);
-        String email = claims.getSubject();
-        String university = claims.get("university", String.class);
+        String email = user.getEmail();
+        String university = user.getUniversity();
 
-        return listingRepository.findByOwnerIdAndSchoolId(email, university);
+        ListingSort order = parseFeedSort(sort);
+        return listingRepository.findPageByOwnerIdAndSchoolId(email, university,
+                order, parseCursor(cursor, order), pageSize(limit));
     }
 
     @GetMapping("/{id}")
-    public Listing getListingById(
-        @RequestHeader("Authorization") String authHeader,
-        @PathVariable String id
+    public ResponseEntity<Listing> getListingById(
+        @AuthenticationPrincipal AuthUser user,
+        @PathVariable String id,
+        WebRequest request
     ) {
-        // parse token
-        String token = authHeader.replace("Bearer ", "");
-        Claims claims = jwtUtil.getAllClaims(token);
-        String university = claims.get("university", String.class);
+        String university = user.getUniversity();
 
         // fetch and validate school
-        return listingRepository.findById(id)
+        Listing listing = listingRepository.findById(id)
             .filter(l -> university.equals(l.getSchoolId()))
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Listing not found"));
+
+        String etag = ETags.strong(listing.getId(), listing.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return revalidated(etag, listing);
     }
 
     @DeleteMapping("/{id}")
     public void deleteListing(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal AuthUser user,
             @PathVariable String id
     ) {
-        String token = authHeader.replace("Bearer ", "");
-        Claims claims = jwtUtil.getAllClaims(token);
-        String email = claims.getSubject();
-        String university = claims.get("university", String.class);
+        String email = user.getEmail();
+        String university = user.getUniversity();
 
-        // ensure only the owner from that university can delete
+        // ensure only the owner from that university can delete; the removed document is
+        // the final one, so it includes renditions the image pipeline attached a moment ago
         Listing listing = listingRepository
-                .findByIdAndOwnerIdAndSchoolId(id, email, university)
+                .deleteByIdAndOwnerIdAndSchoolId(id, email, university)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
 
-        // delete images from S3
-        String prefix = "https://" + bucket + ".s3.amazonaws.com/";
-        for (String url : listing.getImageUrls()) {
-            String key = url.replace(prefix, "");
-            s3Service.deleteFile(key);
+        // only once the listing is gone: a failed delete must leave its images intact
+        s3Cleanup.enqueue(imageUrlsOf(listing).stream()
+                                              .map(s3Service::keyFor)
+                                              .collect(Collectors.toList()));
+        searchIndex.remove(listing);
+        feedCache.invalidate(university);
+    }
+
+    private ListingPage rankedSearch(String university,
+                                     String title,
+                                     List<String> tags,
+                                     Double minPrice,
+                                     Double maxPrice,
+                                     ListingCursor cursor,
+                                     int limit) {
+        int offset = cursor == null ? 0 : cursor.offset();
+        ListingSearchIndex.Hits hits =
+            searchIndex.search(university, title, tags, minPrice, maxPrice, offset, limit);
+
+        // load the page and put it back into ranked order
+        Map<String, Listing> byId = new HashMap<>();
+        for (Listing l : listingRepository.findAllById(hits.ids)) {
+            byId.put(l.getId(), l);
         }
+        List<Listing> items = new ArrayList<>(hits.ids.size());
+        for (String id : hits.ids) {
+            Listing l = byId.get(id);
+            if (l != null) {
+                items.add(l);
+            }
+        }
+
+        String next = hits.nextOffset < 0 ? null : ListingCursor.atOffset(hits.nextOffset).encode();
+        return new ListingPage(items, next);
+    }
+
+    // per-user data: browsers may keep it but must check back before reusing it
+    private static <T> ResponseEntity<T> revalidated(String etag, T body) {
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(body);
+    }
+
+    private static List<String> imageUrlsOf(Listing listing) {
+        List<String> urls = new ArrayList<>(listing.getImageUrls());
+        if (listing.getImages() != null) {
+            for (ListingImage image : listing.getImages()) {
+                urls.add(image.getThumbUrl());
+                urls.add(image.getCardUrl());
+                urls.add(image.getFullUrl());
+            }
+        }
+        return urls;
+    }
+
+    private static String safeFilename(String filename) {
+        if (filename == null || filename.isBlank()) {
+            return "image";
+        }
+        return filename.replaceAll("[^\\w.\\-]", "_");
+    }
+
+    static ListingSort parseSort(String sort) {
+        try {
+            return ListingSort.fromParam(sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown sort: " + sort);
+        }
+    }
+
+    static ListingSort parseFeedSort(String sort) {
+        ListingSort order = parseSort(sort);
+        if (order == ListingSort.RELEVANCE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Relevance order needs a search query");
+        }
+        return order;
+    }
+
+    static ListingCursor parseCursor(String cursor, ListingSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return ListingCursor.decode(cursor, sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // ---- DTOs ----
+
+    public static class UploadRequest {
+        private String filename;
+        private String contentType;
+        public String getFilename() { return filename; }
+        public void setFilename(String filename) { this.filename = filename; }
+        public String getContentType() { return contentType; }
+        public void setContentType(String contentType) { this.contentType = contentType; }
+    }
+
+    public static class UploadSlot {
+        private final String key;
+        private final String uploadUrl;
+
+        public UploadSlot(String key, String uploadUrl) {
+            this.key = key;
+            this.uploadUrl = uploadUrl;
+        }
+
+        public String getKey()       { return key; }
+        public String getUploadUrl() { return uploadUrl; }
+    }
 
-        listingRepository.delete(listing);
+    public static class FinalizeRequest {
+        private String title;
+        private String description;
+        private Double price;
+        private List<String> tags;
+        private List<String> imageKeys;
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+        public Double getPrice() { return price; }
+        public void setPrice(Double price) { this.price = price; }
+        public List<String> getTags() { return tags; }
+        public void setTags(List<String> tags) { this.tags = tags; }
+        public List<String> getImageKeys() { return imageKeys; }
+        public void setImageKeys(List<String> imageKeys) { this.imageKeys = imageKeys; }
     }
 }
@@ -1,13 +1,18 @@
 package com.vgs.backend.controller;
 
+import com.vgs.backend.model.AuthUser;
 import com.vgs.backend.model.Message;
+import com.vgs.backend.repository.MessageCursor;
+import com.vgs.backend.service.MessagePushService;
 import com.vgs.backend.service.MessageService;
-import com.vgs.backend.util.JwtUtil;
-
-import io.jsonwebtoken.Claims;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
 import java.util.List;
@@ -18,54 +23,82 @@ import java.util.stream.Collectors;
 public class MessageController {
 
     private final MessageService messageSvc;
-    private final JwtUtil jwtUtil;
+    private final MessagePushService pushSvc;
 
-    public MessageController(MessageService messageSvc, JwtUtil jwtUtil) {
-        this.messageSvc = messageSvc;
-        this.jwtUtil = jwtUtil;
-    }
+    @Value("${messages.page.default-size}")
+    private int defaultPageSize;
 
-    private String extractEmail(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new RuntimeException("Missing or invalid Authorization header");
-        }
-        String token = authHeader.replace("Bearer ", "");
-        return jwtUtil.validateTokenAndGetEmail(token);
+    @Value("${messages.page.max-size}")
+    private int maxPageSize;
+
+    public MessageController(MessageService messageSvc, MessagePushService pushSvc) {
+        this.messageSvc = messageSvc;
+        this.pushSvc = pushSvc;
     }
 
     @PostMapping("/{recipientId}")
     @ResponseStatus(HttpStatus.CREATED)
     public MessageDto send(
-        @RequestHeader("Authorization") String authHeader,
+        @AuthenticationPrincipal AuthUser user,
         @PathVariable String recipientId,
         @RequestBody MessageRequest req
     ) {
-        String senderId = extractEmail(authHeader);
+        String senderId = user.getEmail();
         Message sent = messageSvc.sendMessage(senderId, recipientId, req.getText());
         return MessageDto.from(sent);
     }
 
     @GetMapping("/with/{otherUserId}")
     public List<MessageDto> convo(
-        @RequestHeader("Authorization") String authHeader,
-        @PathVariable String otherUserId
+        @AuthenticationPrincipal AuthUser user,
+        @PathVariable String otherUserId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
     ) {
-        String me = extractEmail(authHeader);
-        return messageSvc.getConversation(me, otherUserId).stream()
+        String me = user.getEmail();
+        MessageCursor position = parseCursor(cursor);
+        if (position == null) {
+            // opening the conversation at its latest page counts as reading it
+            messageSvc.markRead(me, otherUserId);
+        }
+        return messageSvc.getConversation(me, otherUserId, position, pageSize(limit)).stream()
                          .map(MessageDto::from)
                          .collect(Collectors.toList());
     }
 
     @GetMapping("/threads")
-    public List<ThreadDto> listThreads(@RequestHeader("Authorization") String authHeader) {
-        String token = authHeader.replace("Bearer ", "");
-        Claims claims = jwtUtil.getAllClaims(token);
-        String email = claims.getSubject();
-        return messageSvc.getThreads(email).stream()
+    public List<ThreadDto> listThreads(
+        @AuthenticationPrincipal AuthUser user,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        String email = user.getEmail();
+        return messageSvc.getThreads(email, parseCursor(cursor), pageSize(limit)).stream()
                          .map(ThreadDto::from)
                          .collect(Collectors.toList());
     }
 
+    // EventSource cannot set headers, so JwtAuthFilter also accepts ?access_token= here
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal AuthUser user) {
+        return pushSvc.open(user.getEmail());
+    }
+
+    static MessageCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return MessageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+    }
+
     // ---- DTOs ----
 
     public static class MessageRequest {
@@ -80,6 +113,7 @@ public class MessageController {
         private final String recipientId;
         private final String text;
         private final Instant sentAt;
+        private final String cursor;
 
         private MessageDto(String id, String senderId, String recipientId, String text, Instant sentAt) {
             this.id = id;
@@ -87,6 +121,8 @@ public class MessageController {
             this.recipientId = recipientId;
             this.text = text;
             this.sentAt = sentAt;
+            // pass the oldest message's cursor back to load the page before it
+            this.cursor = MessageCursor.after(sentAt, id).encode();
         }
 
         public static MessageDto from(Message msg) {
@@ -104,6 +140,7 @@ public class MessageController {
         public String getRecipientId() { return recipientId; }
         public String getText()        { return text; }
         public Instant getSentAt()     { return sentAt; }
+        public String getCursor()      { return cursor; }
     }
 
     public static class ThreadDto {
@@ -111,12 +148,17 @@ public class MessageController {
         private final String name;
         private final String lastMessage;
         private final Instant lastAt;
+        private final int unreadCount;
+        private final String cursor;
 
-        private ThreadDto(String userId, String name, String lastMessage, Instant lastAt) {
+        private ThreadDto(String userId, String name, String lastMessage, Instant lastAt, int unreadCount,
+                          String cursor) {
             this.userId = userId;
             this.name = name;
             this.lastMessage = lastMessage;
             this.lastAt = lastAt;
+            this.unreadCount = unreadCount;
+            this.cursor = cursor;
         }
 
         public static ThreadDto from(com.vgs.backend.service.MessageService.ThreadDto svc) {
@@ -124,7 +166,9 @@ public class MessageController {
                 svc.userId,
                 svc.name,
                 svc.lastMessage,
-                svc.lastAt
+                svc.lastAt,
+                svc.unreadCount,
+                svc.cursor
             );
         }
 
@@ -132,5 +176,7 @@ public class MessageController {
         public String getName()        { return name; }
         public String getLastMessage() { return lastMessage; }
         public Instant getLastAt()     { return lastAt; }
+        public int getUnreadCount()    { return unreadCount; }
+        public String getCursor()      { return cursor; }
     }
 }
@@ -1,32 +1,47 @@
 package com.vgs.backend.controller;
 
-import com.vgs.backend.model.User;
-import com.vgs.backend.repository.UserRepository;
+import com.vgs.backend.model.UserSummary;
+import com.vgs.backend.service.UserSummaryCache;
+import com.vgs.backend.util.ETags;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/users")
 public class PublicUserController {
 
-    private final UserRepository userRepo;
+    private final UserSummaryCache userSummaries;
 
-    public PublicUserController(UserRepository userRepo) {
-        this.userRepo = userRepo;
+    public PublicUserController(UserSummaryCache userSummaries) {
+        this.userSummaries = userSummaries;
     }
 
     @GetMapping("/{email}")
-    public PublicUserDto getPublicUser(@PathVariable String email) {
-        User user = userRepo.findByEmail(email)
+    public ResponseEntity<PublicUserDto> getPublicUser(@PathVariable String email, WebRequest request) {
+        UserSummary user = userSummaries.get(email)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
 
-        return new PublicUserDto(
+        // users carry no version, so the tag hashes exactly the fields this endpoint returns
+        String etag = ETags.strong(user.getFirstName(), user.getLastName(), user.getEmail(),
+                                   user.getUniversity());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        PublicUserDto body = new PublicUserDto(
             user.getFirstName(),
             user.getLastName(),
             user.getEmail(),
             user.getUniversity()
         );
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(body);
     }
 
     public static class PublicUserDto {
@@ -0,0 +1,116 @@
+package com.vgs.backend.controller;
+
+import com.vgs.backend.controller.MessageController.MessageDto;
+import com.vgs.backend.model.AuthUser;
+import com.vgs.backend.model.Listing;
+import com.vgs.backend.repository.ListingCursor;
+import com.vgs.backend.repository.ListingSort;
+import com.vgs.backend.repository.ReactiveListingRepository;
+import com.vgs.backend.service.ReactiveMessageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Streaming versions of the read-heavy endpoints, served from the reactive
+ * Mongo driver as NDJSON (one JSON object per line). Documents are written
+ * as the driver produces them and no request thread is held while Mongo or a
+ * slow client catches up. Off unless {@code reactive.read-endpoints.enabled}.
+ *
+ * Listing lines carry the cursor that resumes right after them, so a client
+ * that drops the connection can pick up where it stopped.
+ */
+@RestController
+@RequestMapping("/stream")
+@ConditionalOnProperty(name = "reactive.read-endpoints.enabled", havingValue = "true")
+public class StreamController {
+
+    private final ReactiveListingRepository listings;
+    private final ReactiveMessageService messages;
+
+    @Value("${reactive.stream.max-items}")
+    private int maxItems;
+
+    @Value("${messages.page.default-size}")
+    private int defaultMessagePageSize;
+
+    @Value("${messages.page.max-size}")
+    private int maxMessagePageSize;
+
+    public StreamController(ReactiveListingRepository listings, ReactiveMessageService messages) {
+        this.listings = listings;
+        this.messages = messages;
+    }
+
+    @GetMapping(path = "/listings/university", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ListingLine> listByUniversity(
+            @AuthenticationPrincipal AuthUser user,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        ListingSort order = ListingController.parseFeedSort(sort);
+        return listings.streamBySchoolId(user.getUniversity(),
+                order, ListingController.parseCursor(cursor, order), itemLimit(limit))
+            .map(l -> new ListingLine(l, order));
+    }
+
+    // relevance ranking lives in the in-memory index behind /listings/search; here free text is a filter
+    @GetMapping(path = "/listings/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ListingLine> searchListings(
+        @AuthenticationPrincipal AuthUser user,
+        @RequestParam(required = false) String title,
+        @RequestParam(required = false) List<String> tags,
+        @RequestParam(required = false) Double minPrice,
+        @RequestParam(required = false) Double maxPrice,
+        @RequestParam(required = false) String sort,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        ListingSort order = ListingController.parseSort(sort);
+        if (order == ListingSort.RELEVANCE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Relevance order is only served by /listings/search");
+        }
+        return listings.streamSearch(user.getUniversity(), title, tags, minPrice, maxPrice,
+                order, ListingController.parseCursor(cursor, order), itemLimit(limit))
+            .map(l -> new ListingLine(l, order));
+    }
+
+    @GetMapping(path = "/messages/with/{otherUserId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MessageDto> convo(
+        @AuthenticationPrincipal AuthUser user,
+        @PathVariable String otherUserId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        int size = limit == null || limit <= 0 ? defaultMessagePageSize : Math.min(limit, maxMessagePageSize);
+        return messages.getConversation(user.getEmail(), otherUserId, MessageController.parseCursor(cursor), size)
+                       .map(MessageDto::from);
+    }
+
+    private int itemLimit(Integer limit) {
+        return limit == null || limit <= 0 ? maxItems : Math.min(limit, maxItems);
+    }
+
+    // ---- DTOs ----
+
+    public static class ListingLine {
+        private final Listing listing;
+        private final String cursor;
+
+        ListingLine(Listing listing, ListingSort sort) {
+            this.listing = listing;
+            this.cursor = ListingCursor.after(listing, sort).encode();
+        }
+
+        public Listing getListing() { return listing; }
+        public String getCursor()   { return cursor; }
+    }
+}
@@ -0,0 +1,84 @@
+package com.vgs.backend.controller;
+
+import com.vgs.backend.util.UniversityDomainMap;
+import com.vgs.backend.util.UniversityIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/universities")
+public class UniversityController {
+
+    private final UniversityDomainMap universityDomainMap;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public UniversityController(UniversityDomainMap universityDomainMap,
+                                @Value("${universities.autocomplete.default-limit}") int defaultLimit,
+                                @Value("${universities.autocomplete.max-limit}") int maxLimit) {
+        this.universityDomainMap = universityDomainMap;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    // autocomplete: universities with a word starting with the prefix
+    @GetMapping
+    public ResponseEntity<List<UniversityDto>> complete(@RequestParam(defaultValue = "") String prefix,
+                                                        @RequestParam(required = false) Integer limit,
+                                                        WebRequest request) {
+        UniversityIndex index = universityDomainMap.getIndex();
+        if (request.checkNotModified(etag(index))) {
+            return null;
+        }
+        int size = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        return cached(index, toDtos(index, index.complete(prefix, size)));
+    }
+
+    // reverse lookup from an email host, walking up to parent domains
+    @GetMapping("/by-domain/{domain:.+}")
+    public ResponseEntity<List<UniversityDto>> byDomain(@PathVariable String domain, WebRequest request) {
+        UniversityIndex index = universityDomainMap.getIndex();
+        if (request.checkNotModified(etag(index))) {
+            return null;
+        }
+        return cached(index, toDtos(index, index.forDomain(domain)));
+    }
+
+    // the data only changes on deploy, so the fingerprint is a strong validator for every query
+    private String etag(UniversityIndex index) {
+        return "\"" + index.fingerprint() + "\"";
+    }
+
+    private ResponseEntity<List<UniversityDto>> cached(UniversityIndex index, List<UniversityDto> body) {
+        return ResponseEntity.ok()
+                .eTag(etag(index))
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic())
+                .body(body);
+    }
+
+    private List<UniversityDto> toDtos(UniversityIndex index, List<Integer> ids) {
+        return ids.stream()
+                .map(id -> new UniversityDto(index.name(id), index.domains(id)))
+                .collect(Collectors.toList());
+    }
+
+    public static class UniversityDto {
+        private final String name;
+        private final List<String> domains;
+
+        public UniversityDto(String name, List<String> domains) {
+            this.name = name;
+            this.domains = domains;
+        }
+
+        public String getName()          { return name; }
+        public List<String> getDomains() { return domains; }
+    }
+}
@@ -0,0 +1,29 @@
+package com.vgs.backend.model;
+
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * The verified identity behind a request, parsed once from the JWT by
+ * JwtAuthFilter. Controllers take it with {@code @AuthenticationPrincipal}.
+ */
+public class AuthUser implements Principal {
+    private final String email;
+    private final String university;
+    private final Instant expiresAt;
+
+    public AuthUser(String email, String university, Instant expiresAt) {
+        this.email = email;
+        this.university = university;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getEmail() { return email; }
+    public String getUniversity() { return university; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,18 @@
+package com.vgs.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/** Change counter for one school's listing feed; the id is the school. */
+@Document("feed_versions")
+public class FeedVersion {
+    @Id
+    private String id;
+    private long version;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
@@ -0,0 +1,24 @@
+package com.vgs.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/** Lease on a leader-only job; the id is the job name. */
+@Document("job_locks")
+public class JobLock {
+    @Id
+    private String id;
+    private String owner;
+    private Instant lockedUntil;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public Instant getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(Instant lockedUntil) { this.lockedUntil = lockedUntil; }
+}
@@ -3,9 +3,17 @@ package com.vgs.backend.model;
 import java.time.LocalDateTime;
 import java.util.List;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document("listings")
+@CompoundIndexes({
+    @CompoundIndex(name = "school_price", def = "{'schoolId': 1, 'price': 1, '_id': 1}"),
+    @CompoundIndex(name = "school_tags", def = "{'schoolId': 1, 'tags': 1}"),
+    @CompoundIndex(name = "school_date", def = "{'schoolId': 1, 'datePosted': -1, '_id': -1}"),
+    @CompoundIndex(name = "owner_school_date", def = "{'ownerId': 1, 'schoolId': 1, 'datePosted': -1, '_id': -1}")
+})
 public class Listing {
     @Id
     private String id;
@@ -16,8 +24,12 @@ public class Listing {
     private String ownerId;
     private String schoolId;
     private List<String> imageUrls;
+    // processed renditions, filled in by ImagePipeline after the listing is saved
+    private List<ListingImage> images;
     private List<String> tags;
     private LocalDateTime datePosted;
+    // bumped on every change after the insert; the listing's ETag is built from it
+    private long version;
 
     public Listing() { }
 
@@ -93,6 +105,14 @@ public class Listing {
         this.imageUrls = imageUrls;
     }
 
+    public List<ListingImage> getImages() {
+        return images;
+    }
+
+    public void setImages(List<ListingImage> images) {
+        this.images = images;
+    }
+
     public List<String> getTags() {
         return tags;
     }
@@ -108,4 +128,12 @@ public class Listing {
     public void setDatePosted(LocalDateTime datePosted) {
         this.datePosted = datePosted;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,40 @@
+package com.vgs.backend.model;
+
+/** URLs of the processed renditions of one listing photo. */
+public class ListingImage {
+    private String thumbUrl;
+    private String cardUrl;
+    private String fullUrl;
+
+    public ListingImage() { }
+
+    public ListingImage(String thumbUrl, String cardUrl, String fullUrl) {
+        this.thumbUrl = thumbUrl;
+        this.cardUrl = cardUrl;
+        this.fullUrl = fullUrl;
+    }
+
+    public String getThumbUrl() {
+        return thumbUrl;
+    }
+
+    public void setThumbUrl(String thumbUrl) {
+        this.thumbUrl = thumbUrl;
+    }
+
+    public String getCardUrl() {
+        return cardUrl;
+    }
+
+    public void setCardUrl(String cardUrl) {
+        this.cardUrl = cardUrl;
+    }
+
+    public String getFullUrl() {
+        return fullUrl;
+    }
+
+    public void setFullUrl(String fullUrl) {
+        this.fullUrl = fullUrl;
+    }
+}
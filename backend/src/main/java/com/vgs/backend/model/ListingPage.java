@@ -0,0 +1,21 @@
+package com.vgs.backend.model;
+
+import java.util.List;
+
+public class ListingPage {
+    private final List<Listing> items;
+    private final String nextCursor;
+
+    public ListingPage(List<Listing> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Listing> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -1,14 +1,17 @@
 package com.vgs.backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document("messages")
+@CompoundIndex(name = "conversation_sent_id", def = "{'conversationId': 1, 'sentAt': -1, '_id': -1}")
 public class Message {
     @Id
     private String id;
+    private String conversationId;
     private String senderId;
     private String recipientId;
     private String text;
@@ -21,6 +24,20 @@ public class Message {
         this.id = id;
     }
 
+    /** Same key for both directions of a conversation between two users. */
+    public static String conversationIdFor(String userA, String userB) {
+        return userA.compareTo(userB) <= 0
+            ? userA + "|" + userB
+            : userB + "|" + userA;
+    }
+
+    public String getConversationId() {
+        return conversationId;
+    }
+    public void setConversationId(String conversationId) {
+        this.conversationId = conversationId;
+    }
+
     public String getSenderId() {
         return senderId;
     }
@@ -0,0 +1,85 @@
+package com.vgs.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Inbox entry: one user's view of their conversation with one counterpart.
+ * Maintained on every send, so the inbox is a single indexed read.
+ */
+@Document("threads")
+@CompoundIndexes({
+    @CompoundIndex(name = "owner_counterpart", def = "{'ownerId': 1, 'counterpartId': 1}", unique = true),
+    @CompoundIndex(name = "owner_last_at_id", def = "{'ownerId': 1, 'lastAt': -1, '_id': -1}")
+})
+public class MessageThread {
+    @Id
+    private String id;
+    private String ownerId;
+    private String counterpartId;
+    private String counterpartName;
+    private String lastMessage;
+    private String lastSenderId;
+    private Instant lastAt;
+    private int unreadCount;
+
+    public String getId() {
+        return id;
+    }
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public String getCounterpartId() {
+        return counterpartId;
+    }
+    public void setCounterpartId(String counterpartId) {
+        this.counterpartId = counterpartId;
+    }
+
+    public String getCounterpartName() {
+        return counterpartName;
+    }
+    public void setCounterpartName(String counterpartName) {
+        this.counterpartName = counterpartName;
+    }
+
+    public String getLastMessage() {
+        return lastMessage;
+    }
+    public void setLastMessage(String lastMessage) {
+        this.lastMessage = lastMessage;
+    }
+
+    public String getLastSenderId() {
+        return lastSenderId;
+    }
+    public void setLastSenderId(String lastSenderId) {
+        this.lastSenderId = lastSenderId;
+    }
+
+    public Instant getLastAt() {
+        return lastAt;
+    }
+    public void setLastAt(Instant lastAt) {
+        this.lastAt = lastAt;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+    public void setUnreadCount(int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
@@ -0,0 +1,81 @@
+package com.vgs.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/** An email waiting in the outbox for EmailDispatcher to deliver. */
+@Document("email_outbox")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class OutboxEmail {
+
+    public enum Status { PENDING, SENDING, FAILED }
+
+    /**
+     * Emails are stored as a template plus one value, which lets transports
+     * send many recipients of the same template in a single provider call.
+     */
+    public enum Template {
+        VERIFICATION_CODE("Your VGS Account Verification Code", "Your verification code is: "),
+        PASSWORD_RESET("Your VGS Account Password Reset Link", "Your link is: ");
+
+        private final String subject;
+        private final String bodyPrefix;
+
+        Template(String subject, String bodyPrefix) {
+            this.subject = subject;
+            this.bodyPrefix = bodyPrefix;
+        }
+
+        public String getSubject() { return subject; }
+        public String getBodyPrefix() { return bodyPrefix; }
+
+        public String render(String value) {
+            return bodyPrefix + value;
+        }
+    }
+
+    @Id
+    private String id;
+    private String to;
+    private Template template;
+    private String value;
+    private Status status;
+    private int attempts;
+    private Instant createdAt;
+    private Instant nextAttemptAt;
+    private Instant claimedAt;
+    private String lastError;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+
+    public Template getTemplate() { return template; }
+    public void setTemplate(Template template) { this.template = template; }
+
+    public String getValue() { return value; }
+    public void setValue(String value) { this.value = value; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(Instant nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public Instant getClaimedAt() { return claimedAt; }
+    public void setClaimedAt(Instant claimedAt) { this.claimedAt = claimedAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
@@ -1,16 +1,21 @@
 package com.vgs.backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
+/** Pending password reset token; at most one per email, removed by the TTL index once expired. */
 @Document("password_reset_codes")
 public class PasswordResetCode {
     @Id
     private String id;
+    @Indexed(unique = true)
     private String email;
+    @Indexed(unique = true)
     private String code;
+    @Indexed(expireAfter = "0s")
     private LocalDateTime expiresAt;
     private LocalDateTime lastSentAt;
 
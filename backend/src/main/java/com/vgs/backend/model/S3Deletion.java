@@ -0,0 +1,50 @@
+package com.vgs.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * An S3 object waiting to be deleted by S3CleanupService. Once it runs out
+ * of attempts, nextAttemptAt is cleared and failedAt set, which takes it off
+ * the queue but keeps it around for inspection.
+ */
+@Document("s3_deletions")
+public class S3Deletion {
+    @Id
+    private String id;
+    @Indexed
+    private String key;
+    private int attempts;
+    @Indexed
+    private Instant nextAttemptAt;
+    private String lastError;
+    private Instant failedAt;
+
+    public S3Deletion() { }
+
+    public S3Deletion(String key, Instant nextAttemptAt) {
+        this.key = key;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public Instant getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(Instant nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public Instant getFailedAt() { return failedAt; }
+    public void setFailedAt(Instant failedAt) { this.failedAt = failedAt; }
+}
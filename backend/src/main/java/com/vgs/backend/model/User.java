@@ -1,6 +1,7 @@
 package com.vgs.backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document("users")
@@ -10,6 +11,7 @@ public class User {
     private String profilePictureLink;
     private String firstName;
     private String lastName;
+    @Indexed(unique = true)
     private String email;
     private String university;
     private String passwordHash;
@@ -0,0 +1,34 @@
+package com.vgs.backend.model;
+
+/** The public, rarely-changing part of a {@link User}. */
+public class UserSummary {
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+    private final String university;
+
+    public UserSummary(String email, String firstName, String lastName, String university) {
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.university = university;
+    }
+
+    public static UserSummary of(User user) {
+        return new UserSummary(
+            user.getEmail(),
+            user.getFirstName(),
+            user.getLastName(),
+            user.getUniversity()
+        );
+    }
+
+    public String getEmail() { return email; }
+    public String getFirstName() { return firstName; }
+    public String getLastName() { return lastName; }
+    public String getUniversity() { return university; }
+
+    public String getDisplayName() {
+        return firstName + " " + lastName;
+    }
+}
@@ -1,18 +1,22 @@
 package com.vgs.backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
+/** Pending email verification code; at most one per email, removed by the TTL index once expired. */
 @Document("verification_codes")
 public class VerificationCode {
 
     @Id
     private String id;
 
+    @Indexed(unique = true)
     private String email;
     private String code;
+    @Indexed(expireAfter = "0s")
     private LocalDateTime expiresAt;
     private LocalDateTime lastSentAt;
 
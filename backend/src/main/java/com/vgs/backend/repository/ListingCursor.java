@@ -0,0 +1,87 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.Listing;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position in a listing feed: the sort key and id of the last listing
+ * on the previous page. Serialized as an opaque, URL-safe token.
+ */
+public class ListingCursor {
+
+    private final ListingSort sort;
+    private final String key;
+    private final String id;
+
+    private ListingCursor(ListingSort sort, String key, String id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    public static ListingCursor after(Listing last, ListingSort sort) {
+        String key = sort == ListingSort.NEWEST
+            ? String.valueOf(last.getDatePosted())
+            : String.valueOf(last.getPrice());
+        return new ListingCursor(sort, key, last.getId());
+    }
+
+    public static ListingCursor atOffset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Negative offset");
+        }
+        return new ListingCursor(ListingSort.RELEVANCE, String.valueOf(offset), "");
+    }
+
+    public static ListingCursor decode(String token, ListingSort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            ListingCursor cursor = new ListingCursor(ListingSort.valueOf(parts[0]), parts[1], parts[2]);
+            if (cursor.sort != expectedSort) {
+                throw new IllegalArgumentException("Cursor does not match sort order");
+            }
+            // make sure the key parses before it reaches a query
+            cursor.sortValue();
+            if (cursor.sort == ListingSort.RELEVANCE && cursor.offset() < 0) {
+                throw new IllegalArgumentException("Negative offset");
+            }
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = sort.name() + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                     .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ListingSort getSort() {
+        return sort;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Object sortValue() {
+        switch (sort) {
+            case NEWEST:
+                return LocalDateTime.parse(key);
+            case RELEVANCE:
+                return Integer.valueOf(key);
+            default:
+                return Double.valueOf(key);
+        }
+    }
+
+    /** Position in a ranked result list; only meaningful for {@link ListingSort#RELEVANCE}. */
+    public int offset() {
+        return (Integer) sortValue();
+    }
+}
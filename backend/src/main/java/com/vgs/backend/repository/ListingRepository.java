@@ -5,7 +5,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.List;
 import java.util.Optional;
 
-public interface ListingRepository extends MongoRepository<Listing, String> {
+public interface ListingRepository extends MongoRepository<Listing, String>, ListingRepositoryCustom {
     
     
     List<Listing> findBySchoolId(String schoolId);
@@ -18,5 +18,10 @@ public interface ListingRepository extends MongoRepository<Listing, String> {
         String schoolId
     );
 
-    List<Listing> findByTagsIn(List<String> tags);
+    /** Removes the listing and returns it as it was at that moment. */
+    Optional<Listing> deleteByIdAndOwnerIdAndSchoolId(
+        String id,
+        String ownerId,
+        String schoolId
+    );
 }
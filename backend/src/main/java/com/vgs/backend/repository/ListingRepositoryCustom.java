@@ -0,0 +1,28 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.ListingPage;
+
+import java.util.List;
+
+public interface ListingRepositoryCustom {
+
+    ListingPage search(String schoolId,
+                       String title,
+                       List<String> tags,
+                       Double minPrice,
+                       Double maxPrice,
+                       ListingSort sort,
+                       ListingCursor cursor,
+                       int limit);
+
+    ListingPage findPageBySchoolId(String schoolId,
+                                   ListingSort sort,
+                                   ListingCursor cursor,
+                                   int limit);
+
+    ListingPage findPageByOwnerIdAndSchoolId(String ownerId,
+                                             String schoolId,
+                                             ListingSort sort,
+                                             ListingCursor cursor,
+                                             int limit);
+}
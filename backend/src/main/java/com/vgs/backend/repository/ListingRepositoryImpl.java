@@ -0,0 +1,126 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.Listing;
+import com.vgs.backend.model.ListingPage;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class ListingRepositoryImpl implements ListingRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ListingRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public ListingPage search(String schoolId,
+                              String title,
+                              List<String> tags,
+                              Double minPrice,
+                              Double maxPrice,
+                              ListingSort sort,
+                              ListingCursor cursor,
+                              int limit) {
+        return page(searchCriteria(schoolId, title, tags, minPrice, maxPrice), sort, cursor, limit);
+    }
+
+    @Override
+    public ListingPage findPageBySchoolId(String schoolId,
+                                          ListingSort sort,
+                                          ListingCursor cursor,
+                                          int limit) {
+        return page(Criteria.where("schoolId").is(schoolId), sort, cursor, limit);
+    }
+
+    @Override
+    public ListingPage findPageByOwnerIdAndSchoolId(String ownerId,
+                                                    String schoolId,
+                                                    ListingSort sort,
+                                                    ListingCursor cursor,
+                                                    int limit) {
+        Criteria criteria = Criteria.where("ownerId").is(ownerId).and("schoolId").is(schoolId);
+        return page(criteria, sort, cursor, limit);
+    }
+
+    private ListingPage page(Criteria filter, ListingSort sort, ListingCursor cursor, int limit) {
+        // fetch one extra document to find out whether another page exists
+        List<Listing> found = mongoTemplate.find(pageQuery(filter, sort, cursor, limit + 1), Listing.class);
+
+        if (found.size() <= limit) {
+            return new ListingPage(found, null);
+        }
+        List<Listing> items = found.subList(0, limit);
+        return new ListingPage(items, ListingCursor.after(items.get(limit - 1), sort).encode());
+    }
+
+    // shared with ReactiveListingRepositoryImpl so both read paths send the same queries
+    static Criteria searchCriteria(String schoolId,
+                                   String title,
+                                   List<String> tags,
+                                   Double minPrice,
+                                   Double maxPrice) {
+        // schoolId is always the leading predicate so the compound indexes apply
+        Criteria criteria = Criteria.where("schoolId").is(schoolId);
+
+        if (title != null && !title.isBlank()) {
+            // case-insensitive "contains", same semantics as the old in-memory filter
+            criteria.and("title").regex(Pattern.quote(title.trim()), "i");
+        }
+        if (tags != null && !tags.isEmpty()) {
+            criteria.and("tags").in(tags);
+        }
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = criteria.and("price");
+            if (minPrice != null) price.gte(minPrice);
+            if (maxPrice != null) price.lte(maxPrice);
+        }
+        return criteria;
+    }
+
+    static Query pageQuery(Criteria filter, ListingSort sort, ListingCursor cursor, int limit) {
+        if (sort == ListingSort.RELEVANCE) {
+            throw new IllegalArgumentException("Relevance order is served by the search index");
+        }
+        Criteria criteria = cursor == null
+            ? filter
+            : new Criteria().andOperator(filter, seekPast(cursor));
+        return new Query(criteria)
+            .with(sortFor(sort))
+            .limit(limit);
+    }
+
+    private static Sort sortFor(ListingSort sort) {
+        switch (sort) {
+            case PRICE_ASC:
+                return Sort.by(Sort.Direction.ASC, "price", "id");
+            case PRICE_DESC:
+                return Sort.by(Sort.Direction.DESC, "price", "id");
+            case NEWEST:
+            default:
+                return Sort.by(Sort.Direction.DESC, "datePosted", "id");
+        }
+    }
+
+    // (key > k) OR (key == k AND id > lastId), flipped for descending orders
+    private static Criteria seekPast(ListingCursor cursor) {
+        String field = cursor.getSort() == ListingSort.NEWEST ? "datePosted" : "price";
+        Object value = cursor.sortValue();
+
+        if (cursor.getSort() == ListingSort.PRICE_ASC) {
+            return new Criteria().orOperator(
+                Criteria.where(field).gt(value),
+                Criteria.where(field).is(value).and("id").gt(cursor.getId())
+            );
+        }
+        return new Criteria().orOperator(
+            Criteria.where(field).lt(value),
+            Criteria.where(field).is(value).and("id").lt(cursor.getId())
+        );
+    }
+}
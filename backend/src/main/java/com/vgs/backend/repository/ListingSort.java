@@ -0,0 +1,17 @@
+package com.vgs.backend.repository;
+
+import java.util.Locale;
+
+public enum ListingSort {
+    NEWEST,
+    PRICE_ASC,
+    PRICE_DESC,
+    RELEVANCE;
+
+    public static ListingSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        return ListingSort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
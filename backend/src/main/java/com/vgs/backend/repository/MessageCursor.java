@@ -0,0 +1,52 @@
+package com.vgs.backend.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position in a conversation or the thread list: the timestamp and id
+ * of the last item on the previous page. The id breaks ties between items
+ * written in the same instant. Serialized as an opaque, URL-safe token.
+ */
+public class MessageCursor {
+
+    private final Instant at;
+    private final String id;
+
+    private MessageCursor(Instant at, String id) {
+        this.at = at;
+        this.id = id;
+    }
+
+    public static MessageCursor after(Instant at, String id) {
+        return new MessageCursor(at, id);
+    }
+
+    public static MessageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts[1].isEmpty()) {
+                throw new IllegalArgumentException("Missing id");
+            }
+            return new MessageCursor(Instant.parse(parts[0]), parts[1]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = at + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                     .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Instant getAt() {
+        return at;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
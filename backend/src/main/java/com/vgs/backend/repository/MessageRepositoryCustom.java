@@ -0,0 +1,11 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.Message;
+
+import java.util.List;
+
+public interface MessageRepositoryCustom {
+
+    /** Newest first: the latest {@code limit} messages, or the ones just past {@code cursor}. */
+    List<Message> findPage(String conversationId, MessageCursor cursor, int limit);
+}
@@ -0,0 +1,42 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.Message;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+public class MessageRepositoryImpl implements MessageRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public MessageRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Message> findPage(String conversationId, MessageCursor cursor, int limit) {
+        Criteria filter = Criteria.where("conversationId").is(conversationId);
+        return mongoTemplate.find(pageQuery(filter, "sentAt", cursor, limit), Message.class);
+    }
+
+    // newest first on (timeField, id); shared with the thread list and the reactive conversation reads
+    static Query pageQuery(Criteria filter, String timeField, MessageCursor cursor, int limit) {
+        Criteria criteria = cursor == null
+            ? filter
+            : new Criteria().andOperator(filter, seekPast(timeField, cursor));
+        return new Query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, timeField, "id"))
+            .limit(limit);
+    }
+
+    // (time < t) OR (time == t AND id < lastId)
+    private static Criteria seekPast(String timeField, MessageCursor cursor) {
+        return new Criteria().orOperator(
+            Criteria.where(timeField).lt(cursor.getAt()),
+            Criteria.where(timeField).is(cursor.getAt()).and("id").lt(cursor.getId())
+        );
+    }
+}
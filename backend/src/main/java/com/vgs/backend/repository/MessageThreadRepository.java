@@ -0,0 +1,7 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.MessageThread;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface MessageThreadRepository extends MongoRepository<MessageThread, String>, MessageThreadRepositoryCustom {
+}
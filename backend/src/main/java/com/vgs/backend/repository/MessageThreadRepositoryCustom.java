@@ -0,0 +1,11 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.MessageThread;
+
+import java.util.List;
+
+public interface MessageThreadRepositoryCustom {
+
+    /** Most recent conversation first, starting just past {@code cursor} when given. */
+    List<MessageThread> findPageByOwnerId(String ownerId, MessageCursor cursor, int limit);
+}
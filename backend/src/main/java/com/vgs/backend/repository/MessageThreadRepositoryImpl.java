@@ -0,0 +1,22 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.MessageThread;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+
+public class MessageThreadRepositoryImpl implements MessageThreadRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public MessageThreadRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<MessageThread> findPageByOwnerId(String ownerId, MessageCursor cursor, int limit) {
+        Criteria filter = Criteria.where("ownerId").is(ownerId);
+        return mongoTemplate.find(MessageRepositoryImpl.pageQuery(filter, "lastAt", cursor, limit), MessageThread.class);
+    }
+}
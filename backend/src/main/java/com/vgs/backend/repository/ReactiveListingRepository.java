@@ -0,0 +1,8 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.Listing;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/** Non-blocking reads for the streaming endpoints; writes go through {@link ListingRepository}. */
+public interface ReactiveListingRepository extends ReactiveMongoRepository<Listing, String>, ReactiveListingRepositoryCustom {
+}
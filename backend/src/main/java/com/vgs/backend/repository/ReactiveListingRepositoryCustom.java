@@ -0,0 +1,23 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.Listing;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public interface ReactiveListingRepositoryCustom {
+
+    Flux<Listing> streamSearch(String schoolId,
+                               String title,
+                               List<String> tags,
+                               Double minPrice,
+                               Double maxPrice,
+                               ListingSort sort,
+                               ListingCursor cursor,
+                               int limit);
+
+    Flux<Listing> streamBySchoolId(String schoolId,
+                                   ListingSort sort,
+                                   ListingCursor cursor,
+                                   int limit);
+}
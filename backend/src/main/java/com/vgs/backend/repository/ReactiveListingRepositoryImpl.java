@@ -0,0 +1,43 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.Listing;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Same filters, sort orders and keyset cursors as {@link ListingRepositoryImpl},
+ * but results are emitted as the driver reads them instead of collected into a page.
+ */
+public class ReactiveListingRepositoryImpl implements ReactiveListingRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveListingRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<Listing> streamSearch(String schoolId,
+                                      String title,
+                                      List<String> tags,
+                                      Double minPrice,
+                                      Double maxPrice,
+                                      ListingSort sort,
+                                      ListingCursor cursor,
+                                      int limit) {
+        Criteria filter = ListingRepositoryImpl.searchCriteria(schoolId, title, tags, minPrice, maxPrice);
+        return mongoTemplate.find(ListingRepositoryImpl.pageQuery(filter, sort, cursor, limit), Listing.class);
+    }
+
+    @Override
+    public Flux<Listing> streamBySchoolId(String schoolId,
+                                          ListingSort sort,
+                                          ListingCursor cursor,
+                                          int limit) {
+        Criteria filter = Criteria.where("schoolId").is(schoolId);
+        return mongoTemplate.find(ListingRepositoryImpl.pageQuery(filter, sort, cursor, limit), Listing.class);
+    }
+}
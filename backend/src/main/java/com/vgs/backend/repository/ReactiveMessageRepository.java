@@ -0,0 +1,8 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.Message;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/** Non-blocking conversation reads for the streaming endpoints. */
+public interface ReactiveMessageRepository extends ReactiveMongoRepository<Message, String>, ReactiveMessageRepositoryCustom {
+}
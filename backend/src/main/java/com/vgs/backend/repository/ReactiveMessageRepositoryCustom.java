@@ -0,0 +1,9 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.Message;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveMessageRepositoryCustom {
+
+    Flux<Message> findPage(String conversationId, MessageCursor cursor, int limit);
+}
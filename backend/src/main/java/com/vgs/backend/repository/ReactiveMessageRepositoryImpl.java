@@ -0,0 +1,22 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.Message;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Flux;
+
+/** Same page and cursor as {@link MessageRepositoryImpl#findPage}, emitted as the driver reads it. */
+public class ReactiveMessageRepositoryImpl implements ReactiveMessageRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveMessageRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<Message> findPage(String conversationId, MessageCursor cursor, int limit) {
+        Criteria filter = Criteria.where("conversationId").is(conversationId);
+        return mongoTemplate.find(MessageRepositoryImpl.pageQuery(filter, "sentAt", cursor, limit), Message.class);
+    }
+}
@@ -2,8 +2,11 @@ package com.vgs.backend.repository;
 
 import com.vgs.backend.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
+    List<User> findByEmailIn(Collection<String> emails);
 }
\ No newline at end of file
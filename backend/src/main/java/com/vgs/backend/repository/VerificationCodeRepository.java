@@ -3,12 +3,10 @@ package com.vgs.backend.repository;
 import com.vgs.backend.model.VerificationCode;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface VerificationCodeRepository extends MongoRepository<VerificationCode, String> {
     Optional<VerificationCode> findByEmail(String email);
     boolean existsByEmail(String email);
     void deleteByEmail(String email);
-    void deleteByExpiresAtBefore(LocalDateTime time);
 }
@@ -0,0 +1,131 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.PasswordResetCode;
+import com.vgs.backend.model.User;
+import com.vgs.backend.model.VerificationCode;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Email verification codes and password reset tokens. Each operation is a
+ * single atomic write against the unique {@code email} index, so concurrent
+ * requests (or replicas) can't hand out two codes or redeem one twice.
+ * Expired documents are removed by their TTL index.
+ */
+@Service
+public class AuthCodeService {
+    private static final Duration RESEND_INTERVAL = Duration.ofSeconds(60);
+    private static final Duration VERIFICATION_TTL = Duration.ofMinutes(10);
+    private static final Duration RESET_TTL = Duration.ofMinutes(15);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    public enum Outcome { OK, NOT_FOUND, INVALID, EXPIRED }
+
+    private final MongoTemplate mongoTemplate;
+
+    public AuthCodeService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /** A fresh 6-digit code for {@code email}, or empty if one was sent within the last minute. */
+    public Optional<String> issueVerificationCode(String email) {
+        String code = String.format("%06d", RANDOM.nextInt(1_000_000));
+        return issue(VerificationCode.class, email, code, VERIFICATION_TTL) ? Optional.of(code) : Optional.empty();
+    }
+
+    /** A fresh reset token for {@code email}, or empty if one was sent within the last minute. */
+    public Optional<String> issueResetToken(String email) {
+        String token = UUID.randomUUID().toString();
+        return issue(PasswordResetCode.class, email, token, RESET_TTL) ? Optional.of(token) : Optional.empty();
+    }
+
+    /** Consumes a matching, unexpired code and marks the user verified. */
+    public Outcome verify(String email, String code) {
+        LocalDateTime now = LocalDateTime.now();
+        VerificationCode consumed = mongoTemplate.findAndRemove(
+            Query.query(Criteria.where("email").is(email).and("code").is(code).and("expiresAt").gt(now)),
+            VerificationCode.class);
+        if (consumed == null) {
+            // only failures pay for the second read that tells them apart
+            VerificationCode current = mongoTemplate.findOne(
+                Query.query(Criteria.where("email").is(email)), VerificationCode.class);
+            if (current == null) return Outcome.NOT_FOUND;
+            if (!current.getCode().equals(code)) return Outcome.INVALID;
+            return Outcome.EXPIRED;
+        }
+
+        long matched = mongoTemplate.updateFirst(
+            Query.query(Criteria.where("email").is(email)),
+            Update.update("verified", true),
+            User.class
+        ).getMatchedCount();
+        return matched == 0 ? Outcome.NOT_FOUND : Outcome.OK;
+    }
+
+    /** The email a valid reset token belongs to, without consuming it. */
+    public Optional<String> resetTokenOwner(String token) {
+        PasswordResetCode prc = mongoTemplate.findOne(
+            Query.query(Criteria.where("code").is(token).and("expiresAt").gt(LocalDateTime.now())),
+            PasswordResetCode.class);
+        return Optional.ofNullable(prc).map(PasswordResetCode::getEmail);
+    }
+
+    /**
+     * Consumes the reset token and stores the new hash. Fails with
+     * {@link Outcome#EXPIRED} if the token expired or was redeemed meanwhile.
+     */
+    public Outcome resetPassword(String token, String passwordHash) {
+        PasswordResetCode consumed = mongoTemplate.findAndRemove(
+            Query.query(Criteria.where("code").is(token).and("expiresAt").gt(LocalDateTime.now())),
+            PasswordResetCode.class);
+        if (consumed == null) {
+            return Outcome.EXPIRED;
+        }
+        long matched = mongoTemplate.updateFirst(
+            Query.query(Criteria.where("email").is(consumed.getEmail())),
+            Update.update("passwordHash", passwordHash),
+            User.class
+        ).getMatchedCount();
+        return matched == 0 ? Outcome.NOT_FOUND : Outcome.OK;
+    }
+
+    /**
+     * Stores a rehash of the same password, but only while the stored hash is
+     * still {@code currentHash}; a reset that landed meanwhile wins.
+     */
+    public boolean upgradePasswordHash(String email, String currentHash, String upgradedHash) {
+        return mongoTemplate.updateFirst(
+            Query.query(Criteria.where("email").is(email).and("passwordHash").is(currentHash)),
+            Update.update("passwordHash", upgradedHash),
+            User.class
+        ).getModifiedCount() > 0;
+    }
+
+    private boolean issue(Class<?> type, String email, String code, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        // matches a missing or stale entry; a recent one doesn't match, so the upsert
+        // tries to insert a second document for the email and the unique index rejects it
+        Query replaceable = Query.query(Criteria.where("email").is(email)
+            .and("lastSentAt").lt(now.minus(RESEND_INTERVAL)));
+        Update update = new Update()
+            .set("code", code)
+            .set("expiresAt", now.plus(ttl))
+            .set("lastSentAt", now);
+        try {
+            mongoTemplate.upsert(replaceable, update, type);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.Message;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * One-time data migrations. Each step runs once per database: it is claimed in
+ * the {@code migrations} collection with a lease ({@code owner},
+ * {@code lockedUntil}) before it starts, renewed while it runs, and stamped
+ * {@code completedAt} when it finishes. Later boots and concurrently booting
+ * replicas skip a step that is completed or whose lease is live; a step whose
+ * owner died mid-run is taken over once its lease runs out. The steps are
+ * idempotent, so re-running a half-finished one is safe.
+ */
+@Service
+public class DataMigrationService {
+    private static final String MIGRATIONS = "migrations";
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageService messageService;
+    private final String instanceId;
+    private final Duration lease;
+
+    public DataMigrationService(MongoTemplate mongoTemplate,
+                                MessageService messageService,
+                                LeaderLock leaderLock,
+                                @Value("${migrations.lease-seconds}") long leaseSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.messageService = messageService;
+        this.instanceId = leaderLock.instanceId();
+        this.lease = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        runOnce("messages-conversation-id", this::backfillConversationIds);
+        runOnce("threads-from-messages", this::backfillThreads);
+    }
+
+    private void runOnce(String name, Runnable step) {
+        if (!claim(name)) {
+            return; // done already, or another instance is running it
+        }
+
+        ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "migration-lease-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+        long every = Math.max(1, lease.toMillis() / 3);
+        renewer.scheduleWithFixedDelay(() -> {
+            try {
+                mongoTemplate.updateFirst(mine(name), Update.update("lockedUntil", Instant.now().plus(lease)), MIGRATIONS);
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ Could not renew migration lease " + name + ": " + e.getMessage());
+            }
+        }, every, every, TimeUnit.MILLISECONDS);
+
+        try {
+            step.run();
+        } catch (RuntimeException e) {
+            // let the next boot retry right away instead of waiting out the lease
+            mongoTemplate.updateFirst(mine(name), Update.update("lockedUntil", Instant.EPOCH), MIGRATIONS);
+            throw e;
+        } finally {
+            renewer.shutdownNow();
+        }
+        mongoTemplate.updateFirst(mine(name),
+                                  new Update().set("completedAt", new Date()).unset("lockedUntil"), MIGRATIONS);
+        System.out.println("🛠 Migration applied: " + name);
+    }
+
+    // matches a marker that isn't completed and whose lease is ours, lapsed or missing (left by a crash);
+    // a completed or live one doesn't match, so the upsert collides on _id
+    private boolean claim(String name) {
+        Instant now = Instant.now();
+        Query claimable = Query.query(Criteria.where("_id").is(name).and("completedAt").exists(false).orOperator(
+            Criteria.where("owner").is(instanceId),
+            Criteria.where("lockedUntil").lt(now),
+            Criteria.where("lockedUntil").exists(false)
+        ));
+        Update take = new Update()
+            .set("owner", instanceId)
+            .set("lockedUntil", now.plus(lease))
+            .set("startedAt", Date.from(now));
+        try {
+            mongoTemplate.upsert(claimable, take, MIGRATIONS);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private Query mine(String name) {
+        return Query.query(Criteria.where("_id").is(name).and("owner").is(instanceId));
+    }
+
+    private void backfillConversationIds() {
+        Query missing = Query.query(Criteria.where("conversationId").exists(false));
+        missing.fields().include("senderId", "recipientId");
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class);
+        int queued = 0;
+        try (Stream<Message> messages = mongoTemplate.stream(missing, Message.class)) {
+            for (Message m : (Iterable<Message>) messages::iterator) {
+                bulk.updateOne(
+                    Query.query(Criteria.where("id").is(m.getId())),
+                    Update.update("conversationId",
+                        Message.conversationIdFor(m.getSenderId(), m.getRecipientId()))
+                );
+                if (++queued == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class);
+                    queued = 0;
+                }
+            }
+        }
+        if (queued > 0) {
+            bulk.execute();
+        }
+    }
+
+    // build the inbox projection from the newest message of every conversation
+    private void backfillThreads() {
+        Aggregation latestPerConversation = Aggregation.newAggregation(
+            Aggregation.sort(Sort.Direction.DESC, "sentAt"),
+            Aggregation.group("conversationId")
+                .first("senderId").as("senderId")
+                .first("recipientId").as("recipientId")
+                .first("text").as("text")
+                .first("sentAt").as("sentAt")
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        Map<String, String> names = new HashMap<>();
+        try (Stream<Document> latest = mongoTemplate.aggregateStream(
+                latestPerConversation, "messages", Document.class)) {
+            latest.forEach(doc -> {
+                Message last = new Message();
+                last.setSenderId(doc.getString("senderId"));
+                last.setRecipientId(doc.getString("recipientId"));
+                last.setText(doc.getString("text"));
+                last.setSentAt(doc.getDate("sentAt").toInstant());
+
+                String sender = last.getSenderId();
+                String recipient = last.getRecipientId();
+                messageService.recordInThread(sender, recipient,
+                    names.computeIfAbsent(recipient, messageService::displayName), last, false);
+                messageService.recordInThread(recipient, sender,
+                    names.computeIfAbsent(sender, messageService::displayName), last, false);
+            });
+        }
+    }
+}
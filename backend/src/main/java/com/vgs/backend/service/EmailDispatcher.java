@@ -0,0 +1,143 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.OutboxEmail;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the email outbox. Each pass claims due emails one at a time with an
+ * atomic findAndModify (so several instances never send the same email),
+ * groups them by template and hands each group to the transport in one call.
+ * Failed sends are retried with exponential backoff until
+ * {@code email.outbox.max-attempts}, then parked as FAILED. Passes run as a
+ * leader-only job, so only one replica polls the outbox.
+ */
+@Service
+public class EmailDispatcher {
+
+    private final MongoTemplate mongoTemplate;
+    private final EmailTransport transport;
+    private final MeterRegistry registry;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration claimTimeout;
+    // refreshed after each dispatch pass, so scrapes don't query Mongo; stays 0 on replicas that aren't dispatching
+    private final AtomicLong pending = new AtomicLong();
+
+    public EmailDispatcher(MongoTemplate mongoTemplate,
+                           EmailTransport transport,
+                           MeterRegistry registry,
+                           JobScheduler jobs,
+                           @Value("${email.outbox.batch-size}") int batchSize,
+                           @Value("${email.outbox.max-attempts}") int maxAttempts,
+                           @Value("${email.outbox.base-backoff-seconds}") long baseBackoffSeconds,
+                           @Value("${email.outbox.claim-timeout-seconds}") long claimTimeoutSeconds,
+                           @Value("${email.outbox.poll-interval-ms}") long pollIntervalMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.transport = transport;
+        this.registry = registry;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofSeconds(baseBackoffSeconds);
+        this.claimTimeout = Duration.ofSeconds(claimTimeoutSeconds);
+
+        registry.gauge("email.outbox.pending", pending);
+        jobs.schedule("email-outbox", Duration.ofMillis(pollIntervalMs), true, this::dispatch);
+    }
+
+    public void dispatch() {
+        List<OutboxEmail> claimed;
+        do {
+            claimed = claimBatch();
+            Map<OutboxEmail.Template, List<OutboxEmail>> byTemplate = new EnumMap<>(OutboxEmail.Template.class);
+            for (OutboxEmail email : claimed) {
+                byTemplate.computeIfAbsent(email.getTemplate(), t -> new ArrayList<>()).add(email);
+            }
+            byTemplate.forEach(this::deliver);
+        } while (claimed.size() == batchSize);
+
+        pending.set(mongoTemplate.count(
+            Query.query(Criteria.where("status").is(OutboxEmail.Status.PENDING)), OutboxEmail.class));
+    }
+
+    private List<OutboxEmail> claimBatch() {
+        Instant now = Instant.now();
+        // due pending emails, plus ones a crashed instance claimed but never finished
+        Query due = Query.query(new Criteria().orOperator(
+                Criteria.where("status").is(OutboxEmail.Status.PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(OutboxEmail.Status.SENDING).and("claimedAt").lt(now.minus(claimTimeout))
+            ))
+            .with(Sort.by("nextAttemptAt"));
+        Update claim = new Update()
+            .set("status", OutboxEmail.Status.SENDING)
+            .set("claimedAt", now);
+
+        List<OutboxEmail> claimed = new ArrayList<>();
+        while (claimed.size() < batchSize) {
+            OutboxEmail email = mongoTemplate.findAndModify(due, claim,
+                FindAndModifyOptions.options().returnNew(true), OutboxEmail.class);
+            if (email == null) {
+                break;
+            }
+            claimed.add(email);
+        }
+        return claimed;
+    }
+
+    private void deliver(OutboxEmail.Template template, List<OutboxEmail> batch) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            transport.send(template, batch);
+            sample.stop(registry.timer("email.send", "template", template.name(), "outcome", "success"));
+        } catch (Exception e) {
+            sample.stop(registry.timer("email.send", "template", template.name(), "outcome", "error"));
+            batch.forEach(email -> retryLater(email, e.getMessage()));
+            return;
+        }
+
+        Instant now = Instant.now();
+        for (OutboxEmail email : batch) {
+            registry.timer("email.outbox.latency", "template", template.name())
+                    .record(Duration.between(email.getCreatedAt(), now));
+        }
+        mongoTemplate.remove(
+            Query.query(Criteria.where("id").in(batch.stream().map(OutboxEmail::getId).collect(Collectors.toList()))),
+            OutboxEmail.class
+        );
+    }
+
+    private void retryLater(OutboxEmail email, String error) {
+        int attempts = email.getAttempts() + 1;
+        Update update = new Update()
+            .set("attempts", attempts)
+            .set("lastError", error)
+            .unset("claimedAt");
+        if (attempts >= maxAttempts) {
+            update.set("status", OutboxEmail.Status.FAILED);
+            registry.counter("email.outbox.failed", "template", email.getTemplate().name()).increment();
+        } else {
+            long backoffMillis = baseBackoff.toMillis() << Math.min(attempts - 1, 20);
+            update.set("status", OutboxEmail.Status.PENDING)
+                  .set("nextAttemptAt", Instant.now().plusMillis(backoffMillis));
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(email.getId())), update, OutboxEmail.class);
+    }
+}
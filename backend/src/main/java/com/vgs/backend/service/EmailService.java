@@ -1,64 +1,47 @@
 package com.vgs.backend.service;
 
-import com.sendgrid.helpers.mail.Mail;
-import com.sendgrid.helpers.mail.objects.Email;
-import com.sendgrid.helpers.mail.objects.Content;
-import com.sendgrid.Method;
-import com.sendgrid.Request;
-import com.sendgrid.SendGrid;
-import org.springframework.beans.factory.annotation.Value;
+import com.vgs.backend.model.OutboxEmail;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
+import java.time.Instant;
 
+/** Queues emails in the outbox; EmailDispatcher delivers them in the background. */
 @Service
 public class EmailService {
 
-    @Value("${sendgrid.api.key}")
-    private String sendGridApiKey;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry registry;
 
-    @Value("${sendgrid.from.email}")
-    private String fromEmail;
+    public EmailService(MongoTemplate mongoTemplate, MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        this.registry = registry;
+    }
 
     public void sendVerificationCode(String toEmail, String code) {
-        Email from = new Email(fromEmail);
-        Email to = new Email(toEmail);
-        String subject = "Your VGS Account Verification Code";
-        Content content = new Content("text/plain", "Your verification code is: " + code);
-        Mail mail = new Mail(from, subject, to, content);
-
-        SendGrid sg = new SendGrid(sendGridApiKey);
-        Request request = new Request();
-
-        try {
-            request.setMethod(Method.POST);
-            request.setEndpoint("mail/send");
-            request.setBody(mail.build());
-            sg.api(request);
-            System.out.println("📧 Code sent to " + toEmail);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to send email", e);
-        }
+        enqueue(toEmail, OutboxEmail.Template.VERIFICATION_CODE, code);
     }
 
     public void sendResetPasswordCode(String toEmail, String link) {
-        Email from = new Email(fromEmail);
-        Email to = new Email(toEmail);
-        String subject = "Your VGS Account Password Reset Link";
-        Content content = new Content("text/plain", "Your link is: " + link);
-        Mail mail = new Mail(from, subject, to, content);
-
-        SendGrid sg = new SendGrid(sendGridApiKey);
-        Request request = new Request();
+        enqueue(toEmail, OutboxEmail.Template.PASSWORD_RESET, link);
+    }
 
+    private void enqueue(String to, OutboxEmail.Template template, String value) {
+        Instant now = Instant.now();
+        OutboxEmail email = new OutboxEmail();
+        email.setTo(to);
+        email.setTemplate(template);
+        email.setValue(value);
+        email.setStatus(OutboxEmail.Status.PENDING);
+        email.setCreatedAt(now);
+        email.setNextAttemptAt(now);
         try {
-            request.setMethod(Method.POST);
-            request.setEndpoint("mail/send");
-            request.setBody(mail.build());
-            sg.api(request);
-            System.out.println("📧 Code sent to " + toEmail);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to send email", e);
+            mongoTemplate.insert(email);
+        } catch (RuntimeException e) {
+            registry.counter("email.enqueued", "template", template.name(), "outcome", "error").increment();
+            throw e;
         }
+        registry.counter("email.enqueued", "template", template.name(), "outcome", "success").increment();
     }
 }
@@ -0,0 +1,20 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.OutboxEmail;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Delivers outbox emails. Selected with {@code email.transport}:
+ * {@code sendgrid} (the default) for real delivery, {@code memory} to keep
+ * everything in process for tests and load tests.
+ */
+public interface EmailTransport {
+
+    /**
+     * Sends every email in the batch, all of the same template. Throwing
+     * means none of them can be assumed delivered and all will be retried.
+     */
+    void send(OutboxEmail.Template template, List<OutboxEmail> batch) throws IOException;
+}
@@ -0,0 +1,197 @@
+package com.vgs.backend.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.vgs.backend.model.Listing;
+import com.vgs.backend.model.ListingImage;
+import com.vgs.backend.util.ImageRenditions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Turns a listing's uploaded originals into thumb/card/full renditions in the
+ * background and records their URLs on the listing. Decoding and encoding run
+ * on a fixed-size pool with a bounded queue so a burst of uploads cannot take
+ * over the CPU or the heap; when the queue is full the listing simply keeps
+ * serving its originals.
+ */
+@Service
+public class ImagePipeline {
+
+    private static final List<String> SIZES = List.of("thumb", "card", "full");
+
+    private final S3Service s3Service;
+    private final S3CleanupService s3Cleanup;
+    private final MongoTemplate mongoTemplate;
+    private final ListingFeedCache feedCache;
+    private final MeterRegistry registry;
+    private final ThreadPoolExecutor workers;
+    private final long maxPixels;
+
+    public ImagePipeline(S3Service s3Service,
+                         S3CleanupService s3Cleanup,
+                         MongoTemplate mongoTemplate,
+                         ListingFeedCache feedCache,
+                         MeterRegistry registry,
+                         @Value("${images.pipeline.threads}") int threads,
+                         @Value("${images.pipeline.queue-size}") int queueSize,
+                         @Value("${images.pipeline.max-pixels}") long maxPixels) {
+        this.s3Service = s3Service;
+        this.s3Cleanup = s3Cleanup;
+        this.mongoTemplate = mongoTemplate;
+        this.feedCache = feedCache;
+        this.registry = registry;
+        this.maxPixels = maxPixels;
+
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger n = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            r -> {
+                Thread t = new Thread(r, "image-pipeline-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        registry.gauge("images.pipeline.queue", workers.getQueue(), q -> q.size());
+    }
+
+    public void submit(Listing listing) {
+        List<String> originals = listing.getImageUrls();
+        if (originals == null || originals.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<ListingImage>> renditions = new ArrayList<>();
+        try {
+            for (String url : originals) {
+                String key = s3Service.keyFor(url);
+                renditions.add(CompletableFuture.supplyAsync(() -> render(key), workers)
+                                                .thenCompose(this::upload));
+            }
+        } catch (RejectedExecutionException e) {
+            registry.counter("images.pipeline.rejected").increment();
+            // originals accepted before the queue filled still render and upload; drop those renditions
+            discardWhenSettled(renditions, originals);
+            return;
+        }
+
+        CompletableFuture.allOf(renditions.toArray(new CompletableFuture[0]))
+            .whenComplete((v, e) -> {
+                if (e != null) {
+                    // every rendition has settled; delete whichever of them reached S3
+                    s3Cleanup.enqueue(renditionKeys(originals));
+                }
+            })
+            .thenRun(() -> attach(listing, originals,
+                renditions.stream().map(CompletableFuture::join).collect(Collectors.toList())))
+            .exceptionally(e -> {
+                registry.counter("images.pipeline.failed").increment();
+                System.out.println("⚠️ Image processing failed for listing " + listing.getId() + ": " + e.getMessage());
+                return null;
+            });
+    }
+
+    private Rendered render(String key) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            Map<ImageRenditions.Size, byte[]> out = ImageRenditions.render(s3Service.download(key), maxPixels);
+            sample.stop(registry.timer("images.pipeline.render", "outcome", "success"));
+            return new Rendered(key, out);
+        } catch (IOException e) {
+            sample.stop(registry.timer("images.pipeline.render", "outcome", "error"));
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CompletableFuture<ListingImage> upload(Rendered rendered) {
+        CompletableFuture<String> thumb = s3Service.uploadBytesAsync(
+            rendered.images.get(ImageRenditions.Size.THUMB), "image/jpeg", renditionKey(rendered.key, "thumb"));
+        CompletableFuture<String> card = s3Service.uploadBytesAsync(
+            rendered.images.get(ImageRenditions.Size.CARD), "image/jpeg", renditionKey(rendered.key, "card"));
+        CompletableFuture<String> full = s3Service.uploadBytesAsync(
+            rendered.images.get(ImageRenditions.Size.FULL), "image/jpeg", renditionKey(rendered.key, "full"));
+        return CompletableFuture.allOf(thumb, card, full)
+            .thenApply(v -> new ListingImage(thumb.join(), card.join(), full.join()));
+    }
+
+    private void attach(Listing listing, List<String> originals, List<ListingImage> images) {
+        UpdateResult result;
+        try {
+            result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(listing.getId())),
+                Update.update("images", images).inc("version", 1),
+                Listing.class
+            );
+        } catch (RuntimeException e) {
+            s3Cleanup.enqueue(renditionKeys(originals));
+            throw e;
+        }
+        if (result.getMatchedCount() == 0) {
+            // listing was deleted while we worked; don't leave the renditions behind
+            s3Cleanup.enqueue(renditionKeys(originals));
+        } else {
+            feedCache.invalidate(listing.getSchoolId());
+        }
+    }
+
+    private void discardWhenSettled(List<CompletableFuture<ListingImage>> renditions, List<String> originals) {
+        CompletableFuture.allOf(renditions.stream()
+                                          .map(r -> r.handle((image, e) -> null))
+                                          .toArray(CompletableFuture[]::new))
+            .thenRun(() -> s3Cleanup.enqueue(renditionKeys(originals)))
+            .exceptionally(e -> {
+                System.out.println("⚠️ Could not queue cleanup of renditions for " + originals + ": " + e.getMessage());
+                return null;
+            });
+    }
+
+    // every key a rendition of these originals may have been uploaded under
+    private List<String> renditionKeys(List<String> originals) {
+        List<String> keys = new ArrayList<>();
+        for (String url : originals) {
+            String key = s3Service.keyFor(url);
+            for (String size : SIZES) {
+                keys.add(renditionKey(key, size));
+            }
+        }
+        return keys;
+    }
+
+    public static String renditionKey(String originalKey, String size) {
+        return originalKey + "." + size + ".jpg";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private static class Rendered {
+        final String key;
+        final Map<ImageRenditions.Size, byte[]> images;
+
+        Rendered(String key, Map<ImageRenditions.Size, byte[]> images) {
+            this.key = key;
+            this.images = images;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.OutboxEmail;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Keeps the most recent emails in memory instead of sending them. Only for
+ * tests and load tests: it has to be selected explicitly, and the log line
+ * names the template and recipient but never the code or link itself.
+ */
+@Service
+@ConditionalOnProperty(name = "email.transport", havingValue = "memory")
+public class InMemoryEmailTransport implements EmailTransport {
+    private static final int KEEP = 1000;
+
+    private final Deque<OutboxEmail> sent = new ConcurrentLinkedDeque<>();
+
+    @Override
+    public void send(OutboxEmail.Template template, List<OutboxEmail> batch) {
+        for (OutboxEmail email : batch) {
+            sent.addFirst(email);
+            System.out.println("📧 [memory] " + template + " to " + email.getTo());
+        }
+        while (sent.size() > KEEP) {
+            sent.pollLast();
+        }
+    }
+
+    /** Most recent first. */
+    public List<OutboxEmail> sent() {
+        return new ArrayList<>(sent);
+    }
+}
@@ -0,0 +1,41 @@
+package com.vgs.backend.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Service
+public class InProcessMessageBroker implements MessageBroker {
+
+    private final Map<String, List<Consumer<PushEvent>>> listeners = new ConcurrentHashMap<>();
+
+    // listeners only enqueue (see MessagePushService), so delivery runs inline on the publisher's thread
+    @Override
+    public void publish(String userId, PushEvent event) {
+        List<Consumer<PushEvent>> targets = listeners.get(userId);
+        if (targets == null) {
+            return;
+        }
+        for (Consumer<PushEvent> listener : targets) {
+            listener.accept(event);
+        }
+    }
+
+    @Override
+    public Subscription subscribe(String userId, Consumer<PushEvent> listener) {
+        // add inside compute so a concurrent cancel can't drop the list between lookup and add
+        listeners.compute(userId, (id, list) -> {
+            list = list == null ? new CopyOnWriteArrayList<>() : list;
+            list.add(listener);
+            return list;
+        });
+        return () -> listeners.computeIfPresent(userId, (id, list) -> {
+            list.remove(listener);
+            return list.isEmpty() ? null : list;
+        });
+    }
+}
@@ -0,0 +1,245 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.config.UnindexedQueryListener;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates or checks every index declared on the @Document models
+ * ({@code @Indexed}, {@code @CompoundIndex}) before the application serves
+ * traffic. The annotations are the single registry of indexes; this replaces
+ * Spring Data's auto-index-creation so the outcome is reported in one place.
+ *
+ * {@code mongodb.indexes.mode=create} builds missing indexes;
+ * {@code verify} only reports them, for databases where indexes are built
+ * out of band. Either way the resulting layout is handed to
+ * {@link UnindexedQueryListener} so unsupported query shapes get flagged.
+ *
+ * Indexes are matched by key shape and then by options (unique, sparse,
+ * TTL). An existing index with the same keys but different options is
+ * reported as a conflict and left alone; it has to be dropped before the
+ * declared one can be built. A unique index is only built once its
+ * collection has no duplicates: in {@code mongodb.indexes.dedupe-collections}
+ * the newest document of each duplicate group is kept and the rest removed,
+ * anywhere else the duplicates are reported and the index skipped, so a
+ * dirty collection doesn't keep the application from starting.
+ */
+@Service
+public class IndexBootstrap {
+
+    public enum Mode { CREATE, VERIFY }
+
+    // ids printed per duplicate report; enough to find them, not the whole collection
+    private static final int MAX_REPORTED_IDS = 20;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final UnindexedQueryListener unindexedQueries;
+    private final Mode mode;
+    private final Set<String> dedupeCollections;
+    private volatile List<String> missing = List.of();
+    private volatile List<String> conflicts = List.of();
+
+    public IndexBootstrap(MongoTemplate mongoTemplate,
+                          MongoMappingContext mappingContext,
+                          UnindexedQueryListener unindexedQueries,
+                          @Value("${mongodb.indexes.mode}") String mode,
+                          @Value("${mongodb.indexes.dedupe-collections}") String dedupeCollections) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.unindexedQueries = unindexedQueries;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.dedupeCollections = Arrays.stream(dedupeCollections.split(","))
+            .map(String::trim)
+            .filter(c -> !c.isEmpty())
+            .collect(Collectors.toSet());
+    }
+
+    /** Index definitions per collection, as declared on the mapped models. */
+    public Map<String, List<IndexDefinition>> declaredIndexes() {
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        Map<String, List<IndexDefinition>> declared = new LinkedHashMap<>();
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            List<IndexDefinition> indexes = declared.computeIfAbsent(entity.getCollection(), c -> new ArrayList<>());
+            resolver.resolveIndexFor(entity.getType()).forEach(indexes::add);
+        }
+        return declared;
+    }
+
+    /** Declared indexes the database still lacks; in create mode only those that could not be built. */
+    public List<String> missingIndexes() {
+        return missing;
+    }
+
+    /** Declared indexes whose keys exist with different options. */
+    public List<String> conflictingIndexes() {
+        return conflicts;
+    }
+
+    @PostConstruct
+    public void bootstrap() {
+        List<String> missing = new ArrayList<>();
+        List<String> conflicts = new ArrayList<>();
+        int created = 0;
+        int present = 0;
+
+        for (Map.Entry<String, List<IndexDefinition>> entry : declaredIndexes().entrySet()) {
+            String collection = entry.getKey();
+            IndexOperations ops = mongoTemplate.indexOps(collection);
+            Map<List<String>, Map<String, Object>> existing = new LinkedHashMap<>();
+            for (IndexInfo info : ops.getIndexInfo()) {
+                existing.put(keysOf(info), optionsOf(info));
+            }
+
+            for (IndexDefinition index : entry.getValue()) {
+                List<String> keys = keysOf(index);
+                Map<String, Object> options = optionsOf(index);
+                Map<String, Object> current = existing.get(keys);
+                if (current != null) {
+                    if (current.equals(options)) {
+                        present++;
+                    } else {
+                        conflicts.add(collection + " " + keys);
+                        System.out.println("⚠️ index on " + collection + " " + keys + " exists with " + current
+                                           + " but is declared with " + options + "; drop it so it can be rebuilt");
+                    }
+                } else if (mode == Mode.CREATE && build(collection, ops, index, keys, options)) {
+                    existing.put(keys, options);
+                    created++;
+                } else {
+                    missing.add(collection + " " + keys);
+                    System.out.println("⚠️ missing index on " + collection + ": " + keys);
+                }
+            }
+
+            unindexedQueries.indexesFor(collection, existing.keySet().stream()
+                .map(keys -> keys.stream().map(k -> k.substring(0, k.lastIndexOf(':'))).collect(Collectors.toList()))
+                .collect(Collectors.toList()));
+        }
+
+        System.out.println("🗂️ indexes: " + present + " present, " + created + " created, "
+                           + missing.size() + " missing, " + conflicts.size() + " conflicting");
+        this.missing = missing;
+        this.conflicts = conflicts;
+    }
+
+    private boolean build(String collection, IndexOperations ops, IndexDefinition index,
+                          List<String> keys, Map<String, Object> options) {
+        if (Boolean.TRUE.equals(options.get("unique")) && !removeDuplicates(collection, index, keys)) {
+            return false;
+        }
+        try {
+            ops.createIndex(index);
+            return true;
+        } catch (DataAccessException e) {
+            System.out.println("❌ could not build index on " + collection + " " + keys + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // true once no duplicates are left for a unique index on these keys
+    private boolean removeDuplicates(String collection, IndexDefinition index, List<String> keys) {
+        org.bson.Document group = new org.bson.Document();
+        for (String field : index.getIndexKeys().keySet()) {
+            group.append(field.replace('.', '_'), "$" + field);
+        }
+        // newest first within each group, as far as _id order tells
+        List<org.bson.Document> pipeline = List.of(
+            new org.bson.Document("$sort", new org.bson.Document("_id", -1)),
+            new org.bson.Document("$group", new org.bson.Document("_id", group)
+                .append("ids", new org.bson.Document("$push", "$_id"))),
+            new org.bson.Document("$match", new org.bson.Document("ids.1", new org.bson.Document("$exists", true)))
+        );
+
+        List<Object> extra = new ArrayList<>();
+        int groups = 0;
+        for (org.bson.Document duplicate : mongoTemplate.getCollection(collection).aggregate(pipeline).allowDiskUse(true)) {
+            List<?> ids = duplicate.getList("ids", Object.class);
+            extra.addAll(ids.subList(1, ids.size()));
+            groups++;
+        }
+        if (groups == 0) {
+            return true;
+        }
+
+        if (!dedupeCollections.contains(collection)) {
+            System.out.println("⚠️ " + collection + " has " + groups + " duplicated values for unique index " + keys
+                               + "; not building it. Remove the duplicates (ids " + extra.subList(0, Math.min(extra.size(), MAX_REPORTED_IDS))
+                               + (extra.size() > MAX_REPORTED_IDS ? ", …" : "")
+                               + ") or add the collection to mongodb.indexes.dedupe-collections");
+            return false;
+        }
+        long removed = mongoTemplate.getCollection(collection)
+            .deleteMany(new org.bson.Document("_id", new org.bson.Document("$in", extra)))
+            .getDeletedCount();
+        System.out.println("🧹 removed " + removed + " duplicates from " + collection + " for unique index " + keys);
+        return true;
+    }
+
+    // "field:direction" in key order, so declared and existing indexes compare by shape rather than name
+    private static List<String> keysOf(IndexDefinition index) {
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, Object> key : index.getIndexKeys().entrySet()) {
+            keys.add(key.getKey() + ":" + key.getValue());
+        }
+        return keys;
+    }
+
+    private static List<String> keysOf(IndexInfo info) {
+        List<String> keys = new ArrayList<>();
+        for (IndexField field : info.getIndexFields()) {
+            String direction = field.getDirection() == Sort.Direction.ASC ? "1"
+                             : field.getDirection() == Sort.Direction.DESC ? "-1"
+                             : field.isText() ? "text" : "geo";
+            keys.add(field.getKey() + ":" + direction);
+        }
+        return keys;
+    }
+
+    // the options that change what an index enforces; the name and build flags don't
+    private static Map<String, Object> optionsOf(IndexDefinition index) {
+        org.bson.Document options = index.getIndexOptions();
+        Object ttl = options.get("expireAfterSeconds");
+        return options(Boolean.TRUE.equals(options.get("unique")),
+                       Boolean.TRUE.equals(options.get("sparse")),
+                       ttl instanceof Number ? ((Number) ttl).longValue() : null);
+    }
+
+    private static Map<String, Object> optionsOf(IndexInfo info) {
+        return options(info.isUnique(), info.isSparse(),
+                       info.getExpireAfter().map(Duration::getSeconds).orElse(null));
+    }
+
+    private static Map<String, Object> options(boolean unique, boolean sparse, Long expireAfterSeconds) {
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("unique", unique);
+        options.put("sparse", sparse);
+        options.put("expireAfterSeconds", expireAfterSeconds);
+        return options;
+    }
+}
@@ -0,0 +1,167 @@
+package com.vgs.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodic background jobs. Each run is delayed by the interval plus or minus
+ * {@code jobs.jitter-percent}, so replicas started together drift apart
+ * instead of hitting Mongo in lockstep. Leader-only jobs run on the one
+ * instance holding the job's {@link LeaderLock}; the others skip the run, so
+ * the work stays constant however many replicas are deployed. While a
+ * leader-only run is in progress its lease is renewed every third of a lease,
+ * so a run longer than the lease doesn't let a second instance start the same
+ * job. Jobs start once the application is ready.
+ *
+ * Metrics: {@code jobs.run} timer (tags job, outcome=success|error),
+ * {@code jobs.skipped} counter for follower runs,
+ * {@code jobs.lease-lost} counter for runs whose lease could not be renewed and
+ * {@code jobs.last-success} gauge (epoch seconds).
+ */
+@Service
+public class JobScheduler {
+
+    private final LeaderLock leaderLock;
+    private final MeterRegistry registry;
+    private final double jitter;
+    private final ScheduledExecutorService executor;
+    // its own thread, so renewals aren't stuck behind the long runs they keep alive
+    private final ScheduledExecutorService renewals;
+    private final List<Job> jobs = new CopyOnWriteArrayList<>();
+    private volatile boolean started;
+
+    public JobScheduler(LeaderLock leaderLock,
+                        MeterRegistry registry,
+                        @Value("${jobs.threads}") int threads,
+                        @Value("${jobs.jitter-percent}") int jitterPercent) {
+        this.leaderLock = leaderLock;
+        this.registry = registry;
+        this.jitter = jitterPercent / 100.0;
+        AtomicInteger n = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads, r -> {
+            Thread t = new Thread(r, "job-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.renewals = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "job-lease-renewal");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Runs {@code task} every {@code interval} (measured from the end of the
+     * previous run). Exceptions are counted and logged; the job keeps running.
+     */
+    public void schedule(String name, Duration interval, boolean leaderOnly, Runnable task) {
+        Job job = new Job(name, interval, leaderOnly, task);
+        registry.gauge("jobs.last-success", Tags.of("job", name), job.lastSuccess, AtomicLong::get);
+        jobs.add(job);
+        if (started) {
+            reschedule(job);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        started = true;
+        jobs.forEach(this::reschedule);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        renewals.shutdownNow();
+    }
+
+    private void run(Job job) {
+        try {
+            if (job.leaderOnly && !leaderLock.isLeader(job.name)) {
+                registry.counter("jobs.skipped", "job", job.name).increment();
+                return;
+            }
+            ScheduledFuture<?> renewal = job.leaderOnly ? keepLease(job) : null;
+            Timer.Sample sample = Timer.start(registry);
+            try {
+                job.task.run();
+                sample.stop(registry.timer("jobs.run", "job", job.name, "outcome", "success"));
+                job.lastSuccess.set(System.currentTimeMillis() / 1000);
+            } catch (RuntimeException e) {
+                sample.stop(registry.timer("jobs.run", "job", job.name, "outcome", "error"));
+                System.out.println("❌ Job " + job.name + " failed: " + e.getMessage());
+            } finally {
+                if (renewal != null) {
+                    renewal.cancel(false);
+                }
+            }
+        } catch (RuntimeException e) {
+            // leadership check failed (Mongo unreachable); try again next interval
+            System.out.println("❌ Job " + job.name + " could not check leadership: " + e.getMessage());
+        } finally {
+            reschedule(job);
+        }
+    }
+
+    private ScheduledFuture<?> keepLease(Job job) {
+        long every = Math.max(1, leaderLock.lease().toMillis() / 3);
+        return renewals.scheduleWithFixedDelay(() -> {
+            boolean renewed;
+            try {
+                renewed = leaderLock.renew(job.name);
+            } catch (RuntimeException e) {
+                // keep trying; the lease is still good until it runs out
+                System.out.println("⚠️ Job " + job.name + " could not renew its lease: " + e.getMessage());
+                return;
+            }
+            if (!renewed) {
+                registry.counter("jobs.lease-lost", "job", job.name).increment();
+                System.out.println("⚠️ Job " + job.name + " lost its lease mid-run");
+                // nothing left to renew; throwing ends this periodic task
+                throw new IllegalStateException("Lease lost for " + job.name);
+            }
+        }, every, every, TimeUnit.MILLISECONDS);
+    }
+
+    private void reschedule(Job job) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        long millis = job.interval.toMillis();
+        long spread = (long) (millis * jitter);
+        long delay = millis + (spread > 0 ? ThreadLocalRandom.current().nextLong(-spread, spread + 1) : 0);
+        executor.schedule(() -> run(job), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static final class Job {
+        final String name;
+        final Duration interval;
+        final boolean leaderOnly;
+        final Runnable task;
+        final AtomicLong lastSuccess = new AtomicLong();
+
+        Job(String name, Duration interval, boolean leaderOnly, Runnable task) {
+            this.name = name;
+            this.interval = interval;
+            this.leaderOnly = leaderOnly;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.JobLock;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-job leases in the {@code job_locks} collection. An instance is leader
+ * for a job while it holds an unexpired lease; it renews at half the lease,
+ * so a crashed leader is replaced within one lease period. Between renewals
+ * the answer comes from memory, and followers only retry every third of a
+ * lease, so checking leadership doesn't hit Mongo on every run. A job that
+ * runs for longer keeps its lease with {@link #renew}.
+ */
+@Component
+public class LeaderLock {
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration lease;
+    private final String instanceId;
+    // job -> until when our lease is known to hold (held) or until when not to retry (not held)
+    private final Map<String, Long> heldUntil = new ConcurrentHashMap<>();
+    private final Map<String, Long> retryAfter = new ConcurrentHashMap<>();
+
+    public LeaderLock(MongoTemplate mongoTemplate,
+                      @Value("${jobs.leader.lease-seconds}") long leaseSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.instanceId = hostname() + "-" + UUID.randomUUID();
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    public boolean isLeader(String job) {
+        long now = System.currentTimeMillis();
+        Long held = heldUntil.get(job);
+        if (held != null && now < held - lease.toMillis() / 2) {
+            return true;
+        }
+        Long retry = retryAfter.get(job);
+        if (held == null && retry != null && now < retry) {
+            return false;
+        }
+
+        if (tryAcquire(job, now)) {
+            heldUntil.put(job, now + lease.toMillis());
+            retryAfter.remove(job);
+            return true;
+        }
+        heldUntil.remove(job);
+        retryAfter.put(job, now + lease.toMillis() / 3);
+        return false;
+    }
+
+    /**
+     * Extends our lease on {@code job} from now, as long as nobody has taken
+     * it over. Returns false once the lease is lost.
+     */
+    public boolean renew(String job) {
+        long now = System.currentTimeMillis();
+        boolean renewed = mongoTemplate.updateFirst(
+            Query.query(Criteria.where("_id").is(job).and("owner").is(instanceId)),
+            Update.update("lockedUntil", Instant.ofEpochMilli(now).plus(lease)),
+            JobLock.class
+        ).getMatchedCount() > 0;
+        if (renewed) {
+            heldUntil.put(job, now + lease.toMillis());
+        } else {
+            heldUntil.remove(job);
+        }
+        return renewed;
+    }
+
+    public Duration lease() {
+        return lease;
+    }
+
+    private boolean tryAcquire(String job, long now) {
+        // matches a lock that's ours or has lapsed; a live lock held by someone
+        // else doesn't match, so the upsert collides on _id and we stay follower
+        Query free = Query.query(Criteria.where("_id").is(job).orOperator(
+            Criteria.where("owner").is(instanceId),
+            Criteria.where("lockedUntil").lt(Instant.ofEpochMilli(now))
+        ));
+        Update take = new Update()
+            .set("owner", instanceId)
+            .set("lockedUntil", Instant.ofEpochMilli(now).plus(lease));
+        try {
+            mongoTemplate.upsert(free, take, JobLock.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /** Gives up our leases on shutdown so another instance takes over right away. */
+    @PreDestroy
+    public void release() {
+        if (heldUntil.isEmpty()) {
+            return;
+        }
+        mongoTemplate.remove(
+            Query.query(Criteria.where("_id").in(heldUntil.keySet()).and("owner").is(instanceId)),
+            JobLock.class
+        );
+        heldUntil.clear();
+    }
+
+    private static String hostname() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
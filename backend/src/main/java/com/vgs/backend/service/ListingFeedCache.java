@@ -0,0 +1,166 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.FeedVersion;
+import com.vgs.backend.model.ListingPage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Per-school cache of /listings/university pages. Each school's feed has a
+ * version in the {@code feed_versions} collection that is bumped whenever one
+ * of its listings is created, changed or deleted, so every replica sees the
+ * change; replicas re-read it at most every
+ * {@code listings.feed-cache.version-ttl-ms}. Pages are cached under the
+ * version they were loaded at, which also makes the version a strong ETag for
+ * the feed. Bounded LRU of {@code listings.feed-cache.max-pages} pages with
+ * {@code cache.*} meters tagged {@code cache=listingFeed}.
+ */
+@Service
+public class ListingFeedCache {
+
+    private final MongoTemplate mongoTemplate;
+    private final long versionTtlMillis;
+    private final Map<String, Version> versions = new HashMap<>();
+    private final Map<PageKey, ListingPage> pages;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ListingFeedCache(MongoTemplate mongoTemplate,
+                            MeterRegistry registry,
+                            @Value("${listings.feed-cache.max-pages}") int maxPages,
+                            @Value("${listings.feed-cache.version-ttl-ms}") long versionTtlMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.versionTtlMillis = versionTtlMillis;
+        this.hits = registry.counter("cache.gets", "cache", "listingFeed", "result", "hit");
+        this.misses = registry.counter("cache.gets", "cache", "listingFeed", "result", "miss");
+        this.evictions = registry.counter("cache.evictions", "cache", "listingFeed");
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PageKey, ListingPage> eldest) {
+                if (size() > maxPages) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        registry.gauge("cache.size", List.of(Tag.of("cache", "listingFeed")),
+                       this, ListingFeedCache::size);
+    }
+
+    /** Current version of a school's feed; may lag another replica's change by the version TTL. */
+    public long version(String schoolId) {
+        long now = System.currentTimeMillis();
+        synchronized (versions) {
+            Version known = versions.get(schoolId);
+            if (known != null && known.checkedAt + versionTtlMillis > now) {
+                return known.value;
+            }
+        }
+        FeedVersion stored = mongoTemplate.findById(schoolId, FeedVersion.class);
+        long value = stored == null ? 0 : stored.getVersion();
+        remember(schoolId, value, now);
+        return value;
+    }
+
+    /** Page {@code request} of a school's feed at {@code version}, loading it on a miss. */
+    public ListingPage page(String schoolId, long version, String request, Supplier<ListingPage> loader) {
+        PageKey key = new PageKey(schoolId, version, request);
+        synchronized (pages) {
+            ListingPage cached = pages.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        ListingPage loaded = loader.get();
+        synchronized (pages) {
+            // a page loaded while the feed changed is keyed by the old version and never served again
+            pages.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    /** Records a change to a school's listings; call after the write has landed. */
+    public void invalidate(String schoolId) {
+        FeedVersion bumped = mongoTemplate.findAndModify(
+            Query.query(Criteria.where("id").is(schoolId)),
+            new Update().inc("version", 1),
+            FindAndModifyOptions.options().upsert(true).returnNew(true),
+            FeedVersion.class
+        );
+        remember(schoolId, bumped.getVersion(), System.currentTimeMillis());
+        synchronized (pages) {
+            pages.keySet().removeIf(key -> key.schoolId.equals(schoolId));
+        }
+    }
+
+    private void remember(String schoolId, long value, long checkedAt) {
+        synchronized (versions) {
+            Version known = versions.get(schoolId);
+            // never step back to an older version read concurrently
+            if (known == null || known.value <= value) {
+                versions.put(schoolId, new Version(value, checkedAt));
+            }
+        }
+    }
+
+    private int size() {
+        synchronized (pages) {
+            return pages.size();
+        }
+    }
+
+    private static class Version {
+        final long value;
+        final long checkedAt;
+
+        Version(long value, long checkedAt) {
+            this.value = value;
+            this.checkedAt = checkedAt;
+        }
+    }
+
+    private static class PageKey {
+        final String schoolId;
+        final long version;
+        final String request;
+
+        PageKey(String schoolId, long version, String request) {
+            this.schoolId = schoolId;
+            this.version = version;
+            this.request = request;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PageKey)) {
+                return false;
+            }
+            PageKey other = (PageKey) o;
+            return version == other.version && schoolId.equals(other.schoolId) && request.equals(other.request);
+        }
+
+        @Override
+        public int hashCode() {
+            return (schoolId.hashCode() * 31 + Long.hashCode(version)) * 31 + request.hashCode();
+        }
+    }
+}
@@ -0,0 +1,528 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.Listing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Per-school inverted index over listing titles, descriptions and tags.
+ *
+ * Each school's listings get dense int doc ids; postings are sorted int arrays
+ * merged on query, so a term costs memory in proportion to the listings that
+ * contain it, and only the top offset + limit hits are ever ranked. The index is
+ * built lazily on the first query for a school, updated in place when this
+ * instance creates or deletes a listing, and rebuilt in the background once it
+ * is older than {@code listings.search-index.refresh-seconds} so that writes
+ * made by other instances show up.
+ */
+@Service
+public class ListingSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final MongoTemplate mongoTemplate;
+    private final long refreshMillis;
+    private final Map<String, SchoolEntry> schools = new ConcurrentHashMap<>();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "listing-index-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ListingSearchIndex(MongoTemplate mongoTemplate,
+                              @Value("${listings.search-index.refresh-seconds}") long refreshSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.refreshMillis = refreshSeconds * 1000;
+    }
+
+    /**
+     * Ranked search within one school. Every query term must appear in the
+     * title, description or tags; at least one of {@code tags} must match when
+     * given. Results are ordered by score, then newest first.
+     */
+    public Hits search(String schoolId,
+                       String text,
+                       List<String> tags,
+                       Double minPrice,
+                       Double maxPrice,
+                       int offset,
+                       int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+        SchoolIndex index = indexFor(schoolId);
+        return index.search(tokenize(text), normalizeTags(tags), minPrice, maxPrice, offset, limit);
+    }
+
+    public void add(Listing listing) {
+        SchoolEntry entry = schools.get(listing.getSchoolId());
+        if (entry == null) {
+            return; // not loaded yet, the first query will pick it up
+        }
+        synchronized (entry) {
+            entry.index.add(listing);
+            if (entry.pending != null) {
+                entry.pending.add(listing);
+            }
+        }
+    }
+
+    public void remove(Listing listing) {
+        SchoolEntry entry = schools.get(listing.getSchoolId());
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            entry.index.remove(listing.getId());
+            if (entry.pendingRemovals != null) {
+                entry.pendingRemovals.add(listing.getId());
+            }
+        }
+    }
+
+    private SchoolIndex indexFor(String schoolId) {
+        SchoolEntry entry = schools.get(schoolId);
+        if (entry == null) {
+            // load outside the map's locks; if two first queries race, the first one in wins
+            SchoolEntry loaded = new SchoolEntry(load(schoolId));
+            SchoolEntry existing = schools.putIfAbsent(schoolId, loaded);
+            entry = existing != null ? existing : loaded;
+        }
+        return refreshIfStale(schoolId, entry);
+    }
+
+    private SchoolIndex refreshIfStale(String schoolId, SchoolEntry entry) {
+        synchronized (entry) {
+            if (entry.pending == null
+                    && System.currentTimeMillis() - entry.index.builtAt > refreshMillis) {
+                entry.pending = new ArrayList<>();
+                entry.pendingRemovals = new ArrayList<>();
+                rebuilder.execute(() -> rebuild(schoolId, entry));
+            }
+            return entry.index;
+        }
+    }
+
+    private void rebuild(String schoolId, SchoolEntry entry) {
+        SchoolIndex fresh;
+        try {
+            fresh = load(schoolId);
+        } catch (RuntimeException e) {
+            synchronized (entry) {
+                entry.pending = null;
+                entry.pendingRemovals = null;
+            }
+            return;
+        }
+        synchronized (entry) {
+            // replay writes that raced with the snapshot
+            entry.pending.forEach(fresh::add);
+            entry.pendingRemovals.forEach(fresh::remove);
+            entry.index = fresh;
+            entry.pending = null;
+            entry.pendingRemovals = null;
+        }
+    }
+
+    private SchoolIndex load(String schoolId) {
+        Query query = new Query(Criteria.where("schoolId").is(schoolId));
+        query.fields().include("title", "description", "tags", "price", "datePosted");
+
+        SchoolIndex index = new SchoolIndex();
+        try (Stream<Listing> listings = mongoTemplate.stream(query, Listing.class)) {
+            listings.forEach(index::add);
+        }
+        return index;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> normalizeTags(List<String> tags) {
+        List<String> normalized = new ArrayList<>();
+        if (tags != null) {
+            for (String tag : tags) {
+                if (tag != null && !tag.isBlank()) {
+                    normalized.add(tag.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return normalized;
+    }
+
+    /** One page of ranked listing ids; {@code nextOffset} is -1 on the last page. */
+    public static class Hits {
+        public final List<String> ids;
+        public final int nextOffset;
+
+        Hits(List<String> ids, int nextOffset) {
+            this.ids = ids;
+            this.nextOffset = nextOffset;
+        }
+    }
+
+    private static class SchoolEntry {
+        SchoolIndex index;
+        List<Listing> pending;
+        List<String> pendingRemovals;
+
+        SchoolEntry(SchoolIndex index) {
+            this.index = index;
+        }
+    }
+
+    static class SchoolIndex {
+        final long builtAt = System.currentTimeMillis();
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        final Map<String, Integer> docIds = new HashMap<>();
+        final NavigableMap<String, Postings> titlePostings = new TreeMap<>();
+        final NavigableMap<String, Postings> descriptionPostings = new TreeMap<>();
+        final Map<String, Postings> tagPostings = new HashMap<>();
+        final BitSet live = new BitSet();
+
+        String[] ids = new String[64];
+        double[] prices = new double[64];
+        long[] postedAt = new long[64];
+        int size;
+
+        void add(Listing listing) {
+            lock.writeLock().lock();
+            try {
+                if (docIds.containsKey(listing.getId())) {
+                    return;
+                }
+                if (size == ids.length) {
+                    int capacity = size * 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    prices = Arrays.copyOf(prices, capacity);
+                    postedAt = Arrays.copyOf(postedAt, capacity);
+                }
+                int doc = size++;
+                ids[doc] = listing.getId();
+                prices[doc] = listing.getPrice();
+                postedAt[doc] = listing.getDatePosted() == null
+                    ? 0L
+                    : listing.getDatePosted().toEpochSecond(ZoneOffset.UTC);
+                docIds.put(listing.getId(), doc);
+                live.set(doc);
+
+                // doc ids only grow, so appending keeps every posting list sorted
+                for (String token : tokenize(listing.getTitle())) {
+                    titlePostings.computeIfAbsent(token, t -> new Postings()).append(doc);
+                }
+                for (String token : tokenize(listing.getDescription())) {
+                    descriptionPostings.computeIfAbsent(token, t -> new Postings()).append(doc);
+                }
+                if (listing.getTags() != null) {
+                    for (String tag : normalizeTags(listing.getTags())) {
+                        tagPostings.computeIfAbsent(tag, t -> new Postings()).append(doc);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(String id) {
+            lock.writeLock().lock();
+            try {
+                // postings keep the stale doc until the next rebuild; live masks it out
+                Integer doc = docIds.remove(id);
+                if (doc != null) {
+                    live.clear(doc);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Hits search(List<String> terms,
+                    List<String> tags,
+                    Double minPrice,
+                    Double maxPrice,
+                    int offset,
+                    int limit) {
+            lock.readLock().lock();
+            try {
+                // per-term match lists, so each term can be scored by field
+                int termCount = terms.size();
+                Postings[] fields = new Postings[termCount * 3];
+                int[] weights = new int[termCount * 3];
+                Postings candidates = null; // null = every live doc
+                for (int i = 0; i < termCount; i++) {
+                    // the last term is treated as a prefix so results update as the user types
+                    boolean prefix = i == termCount - 1;
+                    Postings title = lookup(titlePostings, terms.get(i), prefix);
+                    Postings description = lookup(descriptionPostings, terms.get(i), prefix);
+                    Postings tag = tagPostings.getOrDefault(terms.get(i), Postings.EMPTY);
+                    fields[i * 3] = title;
+                    fields[i * 3 + 1] = tag;
+                    fields[i * 3 + 2] = description;
+                    weights[i * 3] = TITLE_WEIGHT;
+                    weights[i * 3 + 1] = TAG_WEIGHT;
+                    weights[i * 3 + 2] = DESCRIPTION_WEIGHT;
+
+                    Postings any = Postings.union(List.of(title, description, tag));
+                    candidates = candidates == null ? any : Postings.intersect(candidates, any);
+                }
+
+                if (!tags.isEmpty()) {
+                    List<Postings> anyTag = new ArrayList<>(tags.size());
+                    for (String tag : tags) {
+                        anyTag.add(tagPostings.getOrDefault(tag, Postings.EMPTY));
+                    }
+                    Postings tagged = Postings.union(anyTag);
+                    candidates = candidates == null ? tagged : Postings.intersect(candidates, tagged);
+                }
+
+                // keep only the best offset + limit docs; nothing else is ever sorted
+                TopDocs top = new TopDocs((int) Math.min((long) offset + limit, candidates == null ? size : candidates.size));
+                int[] positions = new int[fields.length];
+                int count = candidates == null ? size : candidates.size;
+                int found = 0;
+                for (int c = 0; c < count; c++) {
+                    int doc = candidates == null ? c : candidates.docs[c];
+                    if (!live.get(doc)) {
+                        continue;
+                    }
+                    double price = prices[doc];
+                    if ((minPrice != null && price < minPrice) || (maxPrice != null && price > maxPrice)) {
+                        continue;
+                    }
+                    // candidates ascend, so each field list is walked once across the whole loop
+                    int score = 0;
+                    for (int f = 0; f < fields.length; f++) {
+                        Postings postings = fields[f];
+                        int pos = positions[f];
+                        while (pos < postings.size && postings.docs[pos] < doc) {
+                            pos++;
+                        }
+                        positions[f] = pos;
+                        if (pos < postings.size && postings.docs[pos] == doc) {
+                            score += weights[f];
+                        }
+                    }
+                    found++;
+                    top.offer(doc, score, postedAt[doc]);
+                }
+
+                int[] ranked = top.drain();
+                int end = (int) Math.min(found, (long) offset + limit);
+                List<String> page = new ArrayList<>(Math.max(0, end - offset));
+                for (int i = offset; i < end; i++) {
+                    page.add(ids[ranked[i]]);
+                }
+                return new Hits(page, end < found ? end : -1);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static Postings lookup(NavigableMap<String, Postings> postings, String term, boolean prefix) {
+            if (!prefix) {
+                return postings.getOrDefault(term, Postings.EMPTY);
+            }
+            return Postings.union(postings.subMap(term, true, term + Character.MAX_VALUE, false).values());
+        }
+    }
+
+    /** Sorted, duplicate-free doc ids; costs 4 bytes per doc that has the term. */
+    static final class Postings {
+        static final Postings EMPTY = new Postings(new int[0], 0);
+
+        int[] docs;
+        int size;
+
+        Postings() {
+            this(new int[4], 0);
+        }
+
+        private Postings(int[] docs, int size) {
+            this.docs = docs;
+            this.size = size;
+        }
+
+        void append(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return; // term repeated within one listing
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+            }
+            docs[size++] = doc;
+        }
+
+        static Postings union(Collection<Postings> lists) {
+            int total = 0;
+            int nonEmpty = 0;
+            Postings last = EMPTY;
+            for (Postings list : lists) {
+                if (list.size > 0) {
+                    total += list.size;
+                    nonEmpty++;
+                    last = list;
+                }
+            }
+            if (nonEmpty <= 1) {
+                return last; // shared, never written to by a query
+            }
+            int[] merged = new int[total];
+            int n = 0;
+            for (Postings list : lists) {
+                System.arraycopy(list.docs, 0, merged, n, list.size);
+                n += list.size;
+            }
+            Arrays.sort(merged);
+            int unique = 0;
+            for (int i = 0; i < n; i++) {
+                if (unique == 0 || merged[unique - 1] != merged[i]) {
+                    merged[unique++] = merged[i];
+                }
+            }
+            return new Postings(merged, unique);
+        }
+
+        static Postings intersect(Postings a, Postings b) {
+            int[] out = new int[Math.min(a.size, b.size)];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < a.size && j < b.size) {
+                int x = a.docs[i];
+                int y = b.docs[j];
+                if (x == y) {
+                    out[n++] = x;
+                    i++;
+                    j++;
+                } else if (x < y) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return new Postings(out, n);
+        }
+    }
+
+    /**
+     * Bounded min-heap over (score, postedAt, doc) holding the best
+     * {@code capacity} docs seen: higher score first, then newer, then lower doc id.
+     */
+    static final class TopDocs {
+        private final int[] docs;
+        private final int[] scores;
+        private final long[] times;
+        private int size;
+
+        TopDocs(int capacity) {
+            this.docs = new int[capacity];
+            this.scores = new int[capacity];
+            this.times = new long[capacity];
+        }
+
+        void offer(int doc, int score, long time) {
+            if (docs.length == 0) {
+                return;
+            }
+            if (size < docs.length) {
+                set(size, doc, score, time);
+                siftUp(size++);
+            } else if (better(score, time, doc, 0)) {
+                set(0, doc, score, time);
+                siftDown(0, size);
+            }
+        }
+
+        /** Best first; empties the heap. */
+        int[] drain() {
+            int[] ranked = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ranked[i] = docs[0];
+                swap(0, i);
+                siftDown(0, i);
+            }
+            size = 0;
+            return ranked;
+        }
+
+        // true if (score, time, doc) ranks ahead of the entry at slot
+        private boolean better(int score, long time, int doc, int slot) {
+            if (score != scores[slot]) return score > scores[slot];
+            if (time != times[slot]) return time > times[slot];
+            return doc < docs[slot];
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                // the worst entry sits at the root
+                if (!better(scores[parent], times[parent], docs[parent], i)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, int end) {
+            while (true) {
+                int worst = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < end && better(scores[worst], times[worst], docs[worst], left)) worst = left;
+                if (right < end && better(scores[worst], times[worst], docs[worst], right)) worst = right;
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void set(int slot, int doc, int score, long time) {
+            docs[slot] = doc;
+            scores[slot] = score;
+            times[slot] = time;
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a]; docs[a] = docs[b]; docs[b] = doc;
+            int score = scores[a]; scores[a] = scores[b]; scores[b] = score;
+            long time = times[a]; times[a] = times[b]; times[b] = time;
+        }
+    }
+}
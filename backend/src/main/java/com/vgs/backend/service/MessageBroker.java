@@ -0,0 +1,38 @@
+package com.vgs.backend.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Fan-out of push events to a user's open connections.
+ *
+ * {@link InProcessMessageBroker} only reaches connections held by this
+ * instance. A bus-backed implementation (Redis pub/sub, Mongo change streams,
+ * ...) would publish to the bus and deliver whatever it receives to its local
+ * subscribers, without any change to callers.
+ *
+ * Listeners must not block: {@link #publish} may run them on the sender's
+ * request thread.
+ */
+public interface MessageBroker {
+
+    void publish(String userId, PushEvent event);
+
+    Subscription subscribe(String userId, Consumer<PushEvent> listener);
+
+    interface Subscription {
+        void cancel();
+    }
+
+    class PushEvent {
+        private final String type;
+        private final Object data;
+
+        public PushEvent(String type, Object data) {
+            this.type = type;
+            this.data = data;
+        }
+
+        public String getType() { return type; }
+        public Object getData() { return data; }
+    }
+}
@@ -0,0 +1,142 @@
+package com.vgs.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events connections for message push. Each open stream is an
+ * async servlet request, so idle connections hold no request thread.
+ *
+ * Every connection has its own bounded queue. Publishing and heartbeats only
+ * enqueue; the blocking writes happen on {@code messages.stream.send-threads}
+ * sender threads, one connection at a time, so a slow client holds at most
+ * one sender and never delays anyone else's events. A client that falls
+ * {@code messages.stream.queue-size} events behind is disconnected and
+ * catches up when EventSource reconnects.
+ */
+@Service
+public class MessagePushService {
+
+    private final MessageBroker broker;
+    private final long timeoutMillis;
+    private final int queueSize;
+    private final Set<Connection> open = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+
+    public MessagePushService(MessageBroker broker,
+                              @Value("${messages.stream.timeout-ms}") long timeoutMillis,
+                              @Value("${messages.stream.queue-size}") int queueSize,
+                              @Value("${messages.stream.send-threads}") int sendThreads,
+                              @Value("${messages.stream.heartbeat-ms}") long heartbeatMillis) {
+        this.broker = broker;
+        this.timeoutMillis = timeoutMillis;
+        this.queueSize = queueSize;
+
+        AtomicInteger n = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(sendThreads, r -> {
+            Thread t = new Thread(r, "message-push-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // its own thread, so pings never wait behind (or hold up) other scheduled work
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "message-push-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter open(String userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(emitter);
+        MessageBroker.Subscription subscription = broker.subscribe(userId, event ->
+            connection.offer(SseEmitter.event().name(event.getType()).data(event.getData())));
+
+        Runnable close = () -> {
+            subscription.cancel();
+            open.remove(connection);
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(close);
+        emitter.onError(e -> close.run());
+        open.add(connection);
+        return emitter;
+    }
+
+    // keeps proxies from closing idle streams and flushes out dead connections
+    void heartbeat() {
+        for (Connection connection : open) {
+            connection.offer(SseEmitter.event().comment("ping"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private class Connection {
+        final SseEmitter emitter;
+        final Queue<SseEmitter.SseEventBuilder> pending = new ArrayBlockingQueue<>(queueSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Connection(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // never blocks: called from publishers and the heartbeat thread
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (!pending.offer(event)) {
+                emitter.completeWithError(new IOException("client is " + queueSize + " events behind"));
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false); // shutting down
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = pending.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                pending.clear();
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            // an event may have arrived between the last poll and releasing the flag
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.vgs.backend.service;
 
+import com.mongodb.client.result.UpdateResult;
 import com.vgs.backend.model.Message;
-import com.vgs.backend.model.User;
+import com.vgs.backend.model.MessageThread;
+import com.vgs.backend.model.UserSummary;
+import com.vgs.backend.repository.MessageCursor;
 import com.vgs.backend.repository.MessageRepository;
-import com.vgs.backend.repository.UserRepository;
+import com.vgs.backend.repository.MessageThreadRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -13,55 +21,143 @@ import java.util.stream.Collectors;
 @Service
 public class MessageService {
     private final MessageRepository msgRepo;
-    private final UserRepository userRepo;
+    private final MessageThreadRepository threadRepo;
+    private final UserSummaryCache userSummaries;
+    private final MongoTemplate mongoTemplate;
+    private final MessageBroker broker;
 
-    public MessageService(MessageRepository msgRepo, UserRepository userRepo) {
+    public MessageService(MessageRepository msgRepo,
+                          MessageThreadRepository threadRepo,
+                          UserSummaryCache userSummaries,
+                          MongoTemplate mongoTemplate,
+                          MessageBroker broker) {
         this.msgRepo = msgRepo;
-        this.userRepo = userRepo;
+        this.threadRepo = threadRepo;
+        this.userSummaries = userSummaries;
+        this.mongoTemplate = mongoTemplate;
+        this.broker = broker;
     }
 
     public Message sendMessage(String senderId, String recipientId, String text) {
         Message m = new Message();
+        m.setConversationId(Message.conversationIdFor(senderId, recipientId));
         m.setSenderId(senderId);
         m.setRecipientId(recipientId);
         m.setText(text);
         m.setSentAt(Instant.now());
-        return msgRepo.save(m);
+        Message saved = msgRepo.save(m);
+
+        // keep both inbox entries current; the recipient's gains an unread message
+        recordInThread(senderId, recipientId, displayName(recipientId), saved, false);
+        recordInThread(recipientId, senderId, displayName(senderId), saved, true);
+
+        // push to the recipient, and to the sender's other open tabs
+        MessageBroker.PushEvent event = new MessageBroker.PushEvent("message", saved);
+        broker.publish(recipientId, event);
+        broker.publish(senderId, event);
+        return saved;
+    }
+
+    /**
+     * The latest {@code limit} messages between two users, or the {@code limit}
+     * messages just before {@code cursor} when paging back. Returned oldest first.
+     */
+    public List<Message> getConversation(String me, String other, MessageCursor cursor, int limit) {
+        String conversationId = Message.conversationIdFor(me, other);
+        List<Message> newestFirst = msgRepo.findPage(conversationId, cursor, limit);
+
+        List<Message> ordered = new ArrayList<>(newestFirst);
+        Collections.reverse(ordered);
+        return ordered;
     }
 
-    public List<Message> getConversation(String me, String other) {
-        // you could also declare a custom repo method, but this will work:
-        return msgRepo.findAll().stream()
-            .filter(m ->
-                (m.getSenderId().equals(me)     && m.getRecipientId().equals(other)) ||
-                (m.getSenderId().equals(other)  && m.getRecipientId().equals(me))
-            )
-            .sorted(Comparator.comparing(Message::getSentAt))
+    /** Inbox for {@code me}, most recent conversation first. */
+    public List<ThreadDto> getThreads(String me, MessageCursor cursor, int limit) {
+        List<MessageThread> threads = threadRepo.findPageByOwnerId(me, cursor, limit);
+
+        // one batched, cached lookup so renamed users show their current name
+        Map<String, UserSummary> counterparts = userSummaries.getAll(
+            threads.stream().map(MessageThread::getCounterpartId).collect(Collectors.toSet()));
+
+        return threads.stream()
+            .map(t -> new ThreadDto(
+                t.getCounterpartId(),
+                Optional.ofNullable(counterparts.get(t.getCounterpartId()))
+                        .map(UserSummary::getDisplayName)
+                        .orElse(t.getCounterpartName()),
+                t.getLastMessage(),
+                t.getLastAt(),
+                t.getUnreadCount(),
+                MessageCursor.after(t.getLastAt(), t.getId()).encode()
+            ))
             .collect(Collectors.toList());
     }
 
-    public List<ThreadDto> getThreads(String me) {
-        List<Message> all = msgRepo.findBySenderIdOrRecipientId(me, me);
-        Map<String, Message> lastByOther = new HashMap<>();
-        for (Message m : all) {
-            String other = m.getSenderId().equals(me) ? m.getRecipientId() : m.getSenderId();
-            lastByOther.compute(other, (k, prev) ->
-                prev == null || m.getSentAt().isAfter(prev.getSentAt()) ? m : prev
-            );
+    /**
+     * Clears {@code me}'s unread count for the conversation with {@code other}.
+     * Called as a side effect of reading the latest page of a conversation
+     * (GET /messages/with/{id} without {@code cursor}), so fetching that page
+     * is what marks it read; idempotent, and a no-op when nothing is unread.
+     */
+    public void markRead(String me, String other) {
+        mongoTemplate.updateFirst(
+            threadQuery(me, other).addCriteria(Criteria.where("unreadCount").gt(0)),
+            Update.update("unreadCount", 0),
+            MessageThread.class
+        );
+    }
+
+    /**
+     * Upserts the inbox entry {@code ownerId} has for {@code counterpartId}.
+     * The unread count is always incremented, but the preview only moves
+     * forward in time: concurrent sends, or the backfill racing live traffic,
+     * never replace a newer preview with an older one.
+     */
+    void recordInThread(String ownerId, String counterpartId, String counterpartName,
+                        Message last, boolean unread) {
+        // 1) create the entry with this preview, or just count the message on an existing one
+        Update ensure = new Update()
+            .set("counterpartName", counterpartName)
+            .setOnInsert("lastMessage", last.getText())
+            .setOnInsert("lastSenderId", last.getSenderId())
+            .setOnInsert("lastAt", last.getSentAt());
+        if (unread) {
+            ensure.inc("unreadCount", 1);
+        } else {
+            ensure.setOnInsert("unreadCount", 0);
+        }
+        UpdateResult result;
+        try {
+            result = mongoTemplate.upsert(threadQuery(ownerId, counterpartId), ensure, MessageThread.class);
+        } catch (DuplicateKeyException e) {
+            // a concurrent send created the entry first; the retry matches it
+            result = mongoTemplate.upsert(threadQuery(ownerId, counterpartId), ensure, MessageThread.class);
         }
+        if (result.getUpsertedId() != null) {
+            return;
+        }
+
+        // 2) replace the preview only if this message is at least as new as the current one
+        mongoTemplate.updateFirst(
+            threadQuery(ownerId, counterpartId).addCriteria(new Criteria().orOperator(
+                Criteria.where("lastAt").lte(last.getSentAt()),
+                Criteria.where("lastAt").exists(false))),
+            new Update()
+                .set("lastMessage", last.getText())
+                .set("lastSenderId", last.getSenderId())
+                .set("lastAt", last.getSentAt()),
+            MessageThread.class
+        );
+    }
+
+    String displayName(String email) {
+        return userSummaries.get(email)
+                            .map(UserSummary::getDisplayName)
+                            .orElse(email);
+    }
 
-        return lastByOther.entrySet().stream().map(e -> {
-            String otherId = e.getKey();
-            Message lastMsg = e.getValue();
-            User otherUser = userRepo.findByEmail(otherId)
-                                     .orElseThrow(() -> new RuntimeException("User not found"));
-            return new ThreadDto(
-                otherId,
-                otherUser.getFirstName() + " " + otherUser.getLastName(),
-                lastMsg.getText(),
-                lastMsg.getSentAt()
-            );
-        }).collect(Collectors.toList());
+    private static Query threadQuery(String ownerId, String counterpartId) {
+        return Query.query(Criteria.where("ownerId").is(ownerId).and("counterpartId").is(counterpartId));
     }
 
     /** Simple DTO for the thread list */
@@ -70,12 +166,17 @@ public class MessageService {
         public final String name;
         public final String lastMessage;
         public final Instant lastAt;
+        public final int unreadCount;
+        public final String cursor;
 
-        public ThreadDto(String userId, String name, String lastMessage, Instant lastAt) {
+        public ThreadDto(String userId, String name, String lastMessage, Instant lastAt, int unreadCount,
+                         String cursor) {
             this.userId = userId;
             this.name = name;
             this.lastMessage = lastMessage;
             this.lastAt = lastAt;
+            this.unreadCount = unreadCount;
+            this.cursor = cursor;
         }
     }
 }
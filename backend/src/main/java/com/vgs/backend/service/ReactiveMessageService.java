@@ -0,0 +1,51 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.Message;
+import com.vgs.backend.model.MessageThread;
+import com.vgs.backend.repository.MessageCursor;
+import com.vgs.backend.repository.ReactiveMessageRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+/** Non-blocking counterpart of {@link MessageService#getConversation} for the streaming endpoints. */
+@Service
+@ConditionalOnProperty(name = "reactive.read-endpoints.enabled", havingValue = "true")
+public class ReactiveMessageService {
+
+    private final ReactiveMessageRepository msgRepo;
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveMessageService(ReactiveMessageRepository msgRepo, ReactiveMongoTemplate mongoTemplate) {
+        this.msgRepo = msgRepo;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /** Same page as the blocking path, oldest first; the latest page also marks the conversation read. */
+    public Flux<Message> getConversation(String me, String other, MessageCursor cursor, int limit) {
+        String conversationId = Message.conversationIdFor(me, other);
+        Flux<Message> newestFirst = msgRepo.findPage(conversationId, cursor, limit);
+
+        // a page is bounded by messages.page.max-size, so flipping it in memory is fine
+        Flux<Message> oldestFirst = newestFirst.collectList().flatMapMany(messages -> {
+            Collections.reverse(messages);
+            return Flux.fromIterable(messages);
+        });
+        return cursor == null ? markRead(me, other).thenMany(oldestFirst) : oldestFirst;
+    }
+
+    private Mono<Void> markRead(String me, String other) {
+        return mongoTemplate.updateFirst(
+            Query.query(Criteria.where("ownerId").is(me).and("counterpartId").is(other).and("unreadCount").gt(0)),
+            Update.update("unreadCount", 0),
+            MessageThread.class
+        ).then();
+    }
+}
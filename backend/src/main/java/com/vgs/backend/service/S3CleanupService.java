@@ -0,0 +1,154 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.S3Deletion;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Durable queue of S3 objects to delete. Callers enqueue keys and return
+ * right away; a background drain removes them with multi-object deletes and
+ * retries failures with exponential backoff, so an S3 outage only delays
+ * cleanup instead of failing requests or leaking objects. A key that still
+ * fails after {@code aws.s3.cleanup.max-attempts} is parked with
+ * {@code failedAt} set instead of being retried forever. The drain is a
+ * leader-only job, so only one replica works the queue.
+ */
+@Service
+public class S3CleanupService {
+    // S3 DeleteObjects accepts at most 1000 keys per call
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final S3Service s3Service;
+    private final MeterRegistry registry;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+    // refreshed by the drain, so scrapes don't query Mongo; stays 0 on replicas that aren't draining
+    private final AtomicLong pending = new AtomicLong();
+
+    public S3CleanupService(MongoTemplate mongoTemplate,
+                            S3Service s3Service,
+                            MeterRegistry registry,
+                            JobScheduler jobs,
+                            @Value("${aws.s3.cleanup.base-backoff-seconds}") long baseBackoffSeconds,
+                            @Value("${aws.s3.cleanup.max-backoff-seconds}") long maxBackoffSeconds,
+                            @Value("${aws.s3.cleanup.max-attempts}") int maxAttempts,
+                            @Value("${aws.s3.cleanup.interval-ms}") long intervalMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.s3Service = s3Service;
+        this.registry = registry;
+        this.baseBackoff = Duration.ofSeconds(baseBackoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+        this.maxAttempts = maxAttempts;
+        registry.gauge("s3.cleanup.pending", pending);
+        jobs.schedule("s3-cleanup", Duration.ofMillis(intervalMs), true, this::drain);
+    }
+
+    public void enqueue(Collection<String> keys) {
+        enqueueAt(keys, Instant.now());
+    }
+
+    /** Deletes the keys no earlier than {@code notBefore}, unless {@link #cancel} gets to them first. */
+    public void enqueueAt(Collection<String> keys, Instant notBefore) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<S3Deletion> pending = keys.stream()
+            .map(key -> new S3Deletion(key, notBefore))
+            .collect(Collectors.toList());
+        mongoTemplate.insertAll(pending);
+    }
+
+    /**
+     * Cancels the pending deletions of these keys that are not due yet and
+     * returns how many it cancelled. A deletion that is already due may be in
+     * the drain's hands, so it is left alone and the object must be treated
+     * as gone.
+     */
+    public long cancel(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.remove(
+            Query.query(Criteria.where("key").in(keys).and("nextAttemptAt").gt(Instant.now())),
+            S3Deletion.class
+        ).getDeletedCount();
+    }
+
+    public void drain() {
+        List<S3Deletion> due;
+        do {
+            Query query = Query.query(Criteria.where("nextAttemptAt").lte(Instant.now()))
+                               .with(Sort.by("nextAttemptAt"))
+                               .limit(BATCH_SIZE);
+            due = mongoTemplate.find(query, S3Deletion.class);
+            if (!due.isEmpty()) {
+                deleteBatch(due);
+            }
+        } while (due.size() == BATCH_SIZE);
+
+        // parked entries have no nextAttemptAt
+        pending.set(mongoTemplate.count(
+            Query.query(Criteria.where("nextAttemptAt").exists(true)), S3Deletion.class));
+    }
+
+    private void deleteBatch(List<S3Deletion> batch) {
+        Map<String, String> failures;
+        try {
+            failures = s3Service.deleteFiles(batch.stream().map(S3Deletion::getKey).collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            // whole call failed (outage, throttling): back the entire batch off
+            batch.forEach(d -> retryLater(d, e.getMessage()));
+            registry.counter("s3.cleanup.deleted", "outcome", "error").increment(batch.size());
+            return;
+        }
+
+        List<String> done = batch.stream()
+            .filter(d -> !failures.containsKey(d.getKey()))
+            .map(S3Deletion::getId)
+            .collect(Collectors.toList());
+        mongoTemplate.remove(Query.query(Criteria.where("id").in(done)), S3Deletion.class);
+        registry.counter("s3.cleanup.deleted", "outcome", "success").increment(done.size());
+
+        for (S3Deletion d : batch) {
+            String error = failures.get(d.getKey());
+            if (error != null) {
+                retryLater(d, error);
+                registry.counter("s3.cleanup.deleted", "outcome", "error").increment();
+            }
+        }
+    }
+
+    private void retryLater(S3Deletion deletion, String error) {
+        int attempts = deletion.getAttempts() + 1;
+        Update update = new Update()
+            .set("attempts", attempts)
+            .set("lastError", error);
+        if (attempts >= maxAttempts) {
+            update.unset("nextAttemptAt").set("failedAt", Instant.now());
+            registry.counter("s3.cleanup.failed").increment();
+        } else {
+            long backoffMillis = Math.min(
+                maxBackoff.toMillis(),
+                baseBackoff.toMillis() << Math.min(attempts - 1, 20)
+            );
+            update.set("nextAttemptAt", Instant.now().plusMillis(backoffMillis));
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(deletion.getId())), update, S3Deletion.class);
+    }
+}
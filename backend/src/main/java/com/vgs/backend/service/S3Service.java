@@ -1,58 +1,316 @@
 package com.vgs.backend.service;
 
+import com.vgs.backend.util.SchoolTags;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 @Service
 public class S3Service {
+    // slack for clock skew and scheduling between the upload deadline and the batch's deletion
+    private static final Duration ABORT_CLEANUP_MARGIN = Duration.ofSeconds(60);
+
     private final S3Client s3;
+    private final S3AsyncClient s3Async;
+    private final S3Presigner presigner;
     private final String bucket;
+    private final String publicBaseUrl;
+    private final MeterRegistry registry;
+    private final SchoolTags schoolTags;
+    // looked up lazily: S3CleanupService deletes through this service
+    private final ObjectProvider<S3CleanupService> cleanup;
+
+    // caps in-flight PUTs across all requests on this instance
+    private final Semaphore uploadPermits;
+    private final long uploadTimeoutSeconds;
 
     public S3Service(
         @Value("${aws.region}") String region,
         @Value("${aws.accessKeyId}") String accessKey,
         @Value("${aws.secretAccessKey}") String secretKey,
-        @Value("${aws.s3.bucket}") String bucket
+        @Value("${aws.s3.bucket}") String bucket,
+        @Value("${aws.s3.endpoint}") String endpoint,
+        @Value("${aws.s3.upload.max-concurrency}") int maxConcurrentUploads,
+        @Value("${aws.s3.upload.timeout-seconds}") long uploadTimeoutSeconds,
+        MeterRegistry registry,
+        SchoolTags schoolTags,
+        ObjectProvider<S3CleanupService> cleanup
     ) {
         this.bucket = bucket;
-        this.s3 = S3Client.builder()
+        this.registry = registry;
+        this.schoolTags = schoolTags;
+        this.cleanup = cleanup;
+        this.uploadPermits = new Semaphore(maxConcurrentUploads);
+        this.uploadTimeoutSeconds = uploadTimeoutSeconds;
+
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+            AwsBasicCredentials.create(accessKey, secretKey));
+        S3ClientBuilder sync = S3Client.builder()
+            .region(Region.of(region))
+            .credentialsProvider(credentials);
+        // bounds every PUT, so an abandoned batch is settled by the time its cleanup runs
+        S3AsyncClientBuilder async = S3AsyncClient.builder()
             .region(Region.of(region))
-            .credentialsProvider(StaticCredentialsProvider.create(
-                AwsBasicCredentials.create(accessKey, secretKey)))
+            .credentialsProvider(credentials)
+            .overrideConfiguration(ClientOverrideConfiguration.builder()
+                .apiCallTimeout(Duration.ofSeconds(uploadTimeoutSeconds))
+                .build());
+        S3Presigner.Builder presign = S3Presigner.builder()
+            .region(Region.of(region))
+            .credentialsProvider(credentials);
+
+        // a local S3-compatible server (load tests, dev); those only do path-style addressing
+        if (endpoint != null && !endpoint.isBlank()) {
+            URI uri = URI.create(endpoint);
+            sync.endpointOverride(uri).forcePathStyle(true);
+            async.endpointOverride(uri).forcePathStyle(true);
+            presign.endpointOverride(uri)
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+            this.publicBaseUrl = endpoint.replaceAll("/+$", "") + "/" + bucket + "/";
+        } else {
+            this.publicBaseUrl = String.format("https://%s.s3.amazonaws.com/", bucket);
+        }
+
+        this.s3 = sync.build();
+        this.s3Async = async.build();
+        this.presigner = presign.build();
+    }
+
+    /** A URL the browser can PUT one object of {@code contentType} to, valid for {@code ttl}. */
+    public String presignUpload(String key, String contentType, Duration ttl) {
+        PutObjectRequest put = PutObjectRequest.builder()
+            .bucket(bucket)
+            .key(key)
+            .contentType(contentType)
             .build();
+        return presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(put)
+                .build())
+            .url()
+            .toString();
     }
 
-    public String uploadFile(MultipartFile file, String key) {
+    /** Size and content type of the stored object, or empty if it does not exist. */
+    public Optional<StoredObject> head(String key) {
         try {
-            PutObjectRequest req = PutObjectRequest.builder()
-                .bucket(bucket)
-                .key(key)
-                // .acl(ObjectCannedACL.PUBLIC_READ)   ← remove this line
-                .contentType(file.getContentType())
-                .build();
+            HeadObjectResponse res = s3.headObject(HeadObjectRequest.builder()
+                                                       .bucket(bucket)
+                                                       .key(key)
+                                                       .build());
+            return Optional.of(new StoredObject(res.contentLength(), res.contentType()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) return Optional.empty();
+            throw e;
+        }
+    }
+
+    /**
+     * Uploads every file concurrently and returns their URLs in the same order.
+     * If any upload fails or the batch times out, no further PUTs are started,
+     * the whole batch is queued for deletion and the error is rethrown right
+     * away. PUTs already in flight are left to finish; the deletion is due only
+     * after the last of them could have landed.
+     */
+    public List<String> uploadFiles(List<MultipartFile> files, List<String> keys) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(uploadTimeoutSeconds);
+        List<CompletableFuture<PutObjectResponse>> puts = new ArrayList<>();
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        try {
+            for (int i = 0; i < files.size() && !firstFailure.isDone(); i++) {
+                MultipartFile file = files.get(i);
+                CompletableFuture<PutObjectResponse> put =
+                    startPut(bytesOf(file), file.getContentType(), keys.get(i), remaining(deadline));
+                put.whenComplete((res, e) -> {
+                    if (e != null) firstFailure.completeExceptionally(e);
+                });
+                puts.add(put);
+            }
 
-            s3.putObject(req,
-                RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+            CompletableFuture<Void> all = CompletableFuture.allOf(puts.toArray(new CompletableFuture[0]));
+            CompletableFuture.anyOf(all, firstFailure).get(remaining(deadline), TimeUnit.NANOSECONDS);
 
-            return String.format("https://%s.s3.amazonaws.com/%s", bucket, key);
+            return keys.stream().map(this::urlFor).collect(Collectors.toList());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(keys);
+            throw new IllegalStateException("Interrupted while uploading files", e);
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            abort(keys);
+            throw new UncheckedIOException("Could not upload file", new IOException(e));
+        }
+    }
+
+    public CompletableFuture<String> uploadBytesAsync(byte[] bytes, String contentType, String key) {
+        return startPut(bytes, contentType, key, TimeUnit.SECONDS.toNanos(uploadTimeoutSeconds))
+            .thenApply(res -> urlFor(key));
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    // read now: multipart temp files go away when the request completes
+    private static byte[] bytesOf(MultipartFile file) {
+        try {
+            return file.getBytes();
         } catch (IOException e) {
             throw new UncheckedIOException("Could not upload file", e);
         }
     }
 
-    public void deleteFile(String key) {
-        s3.deleteObject(DeleteObjectRequest.builder()
-                              .bucket(bucket)
-                              .key(key)
-                              .build());
+    // the permit is held until the SDK call itself completes; callers never cancel it
+    private CompletableFuture<PutObjectResponse> startPut(byte[] bytes, String contentType, String key, long waitNanos) {
+        try {
+            if (!uploadPermits.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+                return CompletableFuture.failedFuture(new TimeoutException("Upload queue is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        PutObjectRequest req = PutObjectRequest.builder()
+            .bucket(bucket)
+            .key(key)
+            .contentType(contentType)
+            .build();
+
+        Timer.Sample sample = Timer.start(registry);
+        CompletableFuture<PutObjectResponse> put;
+        try {
+            put = s3Async.putObject(req, AsyncRequestBody.fromBytes(bytes));
+        } catch (RuntimeException e) {
+            uploadPermits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        put.whenComplete((res, e) -> {
+            uploadPermits.release();
+            sample.stop(registry.timer("s3.upload", "school", schoolOf(key), "outcome", outcome(e)));
+        });
+        return put;
+    }
+
+    public byte[] download(String key) {
+        return s3.getObjectAsBytes(GetObjectRequest.builder()
+                                       .bucket(bucket)
+                                       .key(key)
+                                       .build())
+                 .asByteArray();
+    }
+
+    /**
+     * Deletes up to 1000 keys in one request. Returns the keys S3 could not
+     * delete, mapped to the reason; throws if the request itself fails.
+     */
+    public Map<String, String> deleteFiles(List<String> keys) {
+        List<ObjectIdentifier> objects = keys.stream()
+            .map(k -> ObjectIdentifier.builder().key(k).build())
+            .collect(Collectors.toList());
+        Timer.Sample sample = Timer.start(registry);
+        DeleteObjectsResponse res;
+        try {
+            res = s3.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(bucket)
+                .delete(Delete.builder().objects(objects).quiet(true).build())
+                .build());
+        } catch (RuntimeException e) {
+            sample.stop(registry.timer("s3.delete", "outcome", "error"));
+            throw e;
+        }
+        sample.stop(registry.timer("s3.delete", "outcome", res.errors().isEmpty() ? "success" : "partial"));
+
+        Map<String, String> failures = new HashMap<>();
+        for (S3Error error : res.errors()) {
+            failures.put(error.key(), error.code() + ": " + error.message());
+        }
+        registry.counter("s3.delete.objects", "outcome", "success").increment(keys.size() - failures.size());
+        registry.counter("s3.delete.objects", "outcome", "error").increment(failures.size());
+        return failures;
+    }
+
+    public String urlFor(String key) {
+        return publicBaseUrl + key;
+    }
+
+    public String keyFor(String url) {
+        return url.replace(publicBaseUrl, "");
+    }
+
+    // every PUT of the batch ends within the API call timeout, so a deletion due after it can't be overtaken
+    private void abort(List<String> keys) {
+        Instant due = Instant.now().plusSeconds(uploadTimeoutSeconds).plus(ABORT_CLEANUP_MARGIN);
+        try {
+            cleanup.getObject().enqueueAt(keys, due);
+        } catch (RuntimeException e) {
+            System.out.println("⚠️ Could not queue cleanup of aborted uploads " + keys + ": " + e.getMessage());
+        }
+    }
+
+    // keys are "<school slug>/<file>"
+    private String schoolOf(String key) {
+        int slash = key.indexOf('/');
+        return slash > 0 ? schoolTags.tagForSlug(key.substring(0, slash)) : SchoolTags.NONE;
+    }
+
+    private static String outcome(Throwable e) {
+        if (e == null) return "success";
+        return e instanceof CancellationException ? "cancelled" : "error";
+    }
+
+    @PreDestroy
+    public void close() {
+        presigner.close();
+        s3Async.close();
+        s3.close();
+    }
+
+    public static class StoredObject {
+        private final long size;
+        private final String contentType;
+
+        public StoredObject(long size, String contentType) {
+            this.size = size;
+            this.contentType = contentType;
+        }
+
+        public long getSize()          { return size; }
+        public String getContentType() { return contentType; }
     }
 }
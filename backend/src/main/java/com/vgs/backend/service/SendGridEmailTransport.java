@@ -0,0 +1,57 @@
+package com.vgs.backend.service;
+
+import com.sendgrid.Method;
+import com.sendgrid.Request;
+import com.sendgrid.Response;
+import com.sendgrid.SendGrid;
+import com.sendgrid.helpers.mail.Mail;
+import com.sendgrid.helpers.mail.objects.Content;
+import com.sendgrid.helpers.mail.objects.Email;
+import com.sendgrid.helpers.mail.objects.Personalization;
+import com.vgs.backend.model.OutboxEmail;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+
+@Service
+@ConditionalOnProperty(name = "email.transport", havingValue = "sendgrid")
+public class SendGridEmailTransport implements EmailTransport {
+    private static final String VALUE_TOKEN = "-value-";
+
+    // one client for the process; it keeps a pooled HTTP connection manager
+    private final SendGrid sendGrid;
+    private final String fromEmail;
+
+    public SendGridEmailTransport(@Value("${sendgrid.api.key}") String sendGridApiKey,
+                                  @Value("${sendgrid.from.email}") String fromEmail) {
+        this.sendGrid = new SendGrid(sendGridApiKey);
+        this.fromEmail = fromEmail;
+    }
+
+    /** One API call per batch: a personalization per recipient, each with its own value. */
+    @Override
+    public void send(OutboxEmail.Template template, List<OutboxEmail> batch) throws IOException {
+        Mail mail = new Mail();
+        mail.setFrom(new Email(fromEmail));
+        mail.setSubject(template.getSubject());
+        mail.addContent(new Content("text/plain", template.getBodyPrefix() + VALUE_TOKEN));
+        for (OutboxEmail email : batch) {
+            Personalization p = new Personalization();
+            p.addTo(new Email(email.getTo()));
+            p.addSubstitution(VALUE_TOKEN, email.getValue());
+            mail.addPersonalization(p);
+        }
+
+        Request request = new Request();
+        request.setMethod(Method.POST);
+        request.setEndpoint("mail/send");
+        request.setBody(mail.build());
+        Response response = sendGrid.api(request);
+        if (response.getStatusCode() >= 300) {
+            throw new IOException("SendGrid returned " + response.getStatusCode() + ": " + response.getBody());
+        }
+    }
+}
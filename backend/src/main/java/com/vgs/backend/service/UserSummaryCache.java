@@ -0,0 +1,187 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.User;
+import com.vgs.backend.model.UserSummary;
+import com.vgs.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU cache of {@link UserSummary} keyed by email. Entries expire after
+ * {@code users.summary-cache.ttl-seconds} and are dropped whenever the user
+ * document is saved through Spring Data. A load that started before such an
+ * invalidation is returned but not cached, so it can't put the old summary
+ * back. Exposes Micrometer {@code cache.*} meters tagged {@code cache=userSummary}.
+ */
+@Service
+public class UserSummaryCache extends AbstractMongoEventListener<User> {
+
+    private final UserRepository userRepo;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    // generation at which each email was last invalidated; guarded by entries.
+    // bounded like entries: a key aged out of it counts as invalidated at invalidatedFloor
+    private final Map<String, Long> invalidated;
+    private long generation;
+    private long invalidatedFloor;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public UserSummaryCache(UserRepository userRepo,
+                            MeterRegistry registry,
+                            @Value("${users.summary-cache.max-size}") int maxSize,
+                            @Value("${users.summary-cache.ttl-seconds}") long ttlSeconds) {
+        this.userRepo = userRepo;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.hits = registry.counter("cache.gets", "cache", "userSummary", "result", "hit");
+        this.misses = registry.counter("cache.gets", "cache", "userSummary", "result", "miss");
+        this.evictions = registry.counter("cache.evictions", "cache", "userSummary");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.invalidated = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() > maxSize) {
+                    invalidatedFloor = Math.max(invalidatedFloor, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        registry.gauge("cache.size", List.of(Tag.of("cache", "userSummary")),
+                       this, UserSummaryCache::size);
+    }
+
+    public Optional<UserSummary> get(String email) {
+        UserSummary cached = lookup(email);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        long loadedAt = generation();
+        Optional<UserSummary> loaded = userRepo.findByEmail(email).map(UserSummary::of);
+        loaded.ifPresent(summary -> put(summary, loadedAt));
+        return loaded;
+    }
+
+    /** Summaries for every known email, loading all misses with one query. */
+    public Map<String, UserSummary> getAll(Collection<String> emails) {
+        Map<String, UserSummary> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String email : emails) {
+            UserSummary cached = lookup(email);
+            if (cached != null) {
+                found.put(email, cached);
+            } else if (!missing.contains(email)) {
+                missing.add(email);
+            }
+        }
+        hits.increment(found.size());
+        misses.increment(missing.size());
+
+        if (!missing.isEmpty()) {
+            long loadedAt = generation();
+            for (User user : userRepo.findByEmailIn(missing)) {
+                UserSummary summary = UserSummary.of(user);
+                put(summary, loadedAt);
+                found.put(user.getEmail(), summary);
+            }
+        }
+        return found;
+    }
+
+    public void invalidate(String email) {
+        synchronized (entries) {
+            entries.remove(email);
+            invalidated.put(email, ++generation);
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        invalidate(event.getSource().getEmail());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<User> event) {
+        // the event only carries the delete filter, so drop everything
+        synchronized (entries) {
+            entries.clear();
+            invalidated.clear();
+            invalidatedFloor = ++generation;
+        }
+    }
+
+    private UserSummary lookup(String email) {
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                entries.remove(email);
+                evictions.increment();
+                return null;
+            }
+            return entry.summary;
+        }
+    }
+
+    private long generation() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    // skipped when the email was invalidated after the load read it
+    private void put(UserSummary summary, long loadedAt) {
+        synchronized (entries) {
+            if (invalidated.getOrDefault(summary.getEmail(), invalidatedFloor) > loadedAt) {
+                return;
+            }
+            entries.put(summary.getEmail(), new Entry(summary, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static class Entry {
+        final UserSummary summary;
+        final long expiresAt;
+
+        Entry(UserSummary summary, long expiresAt) {
+            this.summary = summary;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
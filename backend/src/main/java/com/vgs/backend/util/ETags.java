@@ -0,0 +1,27 @@
+package com.vgs.backend.util;
+
+import java.nio.charset.StandardCharsets;
+
+/** Strong entity tags built from whatever identifies a representation's version. */
+public final class ETags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ETags() { }
+
+    /** Quoted 64-bit FNV-1a hash of the parts, in order; nulls are allowed. */
+    public static String strong(Object... parts) {
+        long hash = FNV_OFFSET;
+        for (Object part : parts) {
+            for (byte b : String.valueOf(part).getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xff;
+                hash *= FNV_PRIME;
+            }
+            // separator so ("ab", "c") and ("a", "bc") differ
+            hash ^= 0xff;
+            hash *= FNV_PRIME;
+        }
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+}
@@ -0,0 +1,132 @@
+package com.vgs.backend.util;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs the blocking calls of one request in parallel, scoped to that request:
+ * every subtask shares one deadline, the first failure or the deadline
+ * cancels (interrupts) the others, and nothing outlives the call. The same
+ * shape as a structured task scope, without needing a preview API.
+ *
+ * With {@code spring.threads.virtual.enabled} on a Java 21+ runtime each
+ * subtask gets its own virtual thread (Tomcat then serves requests on
+ * virtual threads too); otherwise subtasks share a fixed pool of
+ * {@code fanout.threads} platform threads.
+ */
+@Component
+public class FanOut {
+
+    private final ExecutorService executor;
+    private final long timeoutMillis;
+    private final boolean virtual;
+
+    public FanOut(@Value("${spring.threads.virtual.enabled}") boolean virtualThreads,
+                  @Value("${fanout.threads}") int threads,
+                  @Value("${fanout.timeout-ms}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        ExecutorService perTask = virtualThreads ? virtualThreadPerTask() : null;
+        this.virtual = perTask != null;
+        if (perTask != null) {
+            this.executor = perTask;
+        } else {
+            AtomicInteger n = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "fanout-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtual;
+    }
+
+    /**
+     * Applies {@code task} to every item in parallel and returns the results
+     * in item order. A failing subtask's exception is rethrown as is (after
+     * the others are cancelled); running out of time is a 504.
+     */
+    public <T, R> List<R> map(List<T> items, Function<? super T, ? extends R> task) {
+        if (items.size() <= 1) {
+            // nothing to overlap; skip the hand-off
+            List<R> results = new ArrayList<>(items.size());
+            items.forEach(item -> results.add(task.apply(item)));
+            return results;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        // completions arrive in finishing order, so a failure is seen as soon as it happens
+        CompletionService<R> completions = new ExecutorCompletionService<>(executor);
+        Map<Future<R>, Integer> positions = new HashMap<>();
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        try {
+            for (T item : items) {
+                Future<R> future = completions.submit(() -> task.apply(item));
+                positions.put(future, futures.size());
+                futures.add(future);
+            }
+            List<R> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+            for (int i = 0; i < items.size(); i++) {
+                Future<R> done = completions.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new TimeoutException();
+                }
+                results.set(positions.get(done), done.get());
+            }
+            return results;
+        } catch (TimeoutException e) {
+            cancelAll(futures);
+            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Upstream calls timed out");
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for subtasks", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static void cancelAll(List<? extends Future<?>> futures) {
+        futures.forEach(f -> f.cancel(true));
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() exists from Java 21; the build still targets 17
+    private static ExecutorService virtualThreadPerTask() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("⚠️ virtual threads need Java 21+; fan-out uses platform threads");
+            return null;
+        }
+    }
+}
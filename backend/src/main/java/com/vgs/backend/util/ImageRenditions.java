@@ -0,0 +1,245 @@
+package com.vgs.backend.util;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Resizes an uploaded photo into the sizes the frontend renders and
+ * re-encodes each as a progressive JPEG. Only pixels are written back, so
+ * EXIF and any other metadata in the original are dropped; the EXIF
+ * orientation is applied to the pixels first so phone photos stay upright.
+ *
+ * Dimensions are read from the header before anything is decoded, and images
+ * over the pixel cap are refused, so a small file that decompresses to a huge
+ * bitmap cannot exhaust the heap.
+ */
+public class ImageRenditions {
+
+    public enum Size {
+        THUMB(200),
+        CARD(600),
+        FULL(1600);
+
+        private final int maxEdge;
+
+        Size(int maxEdge) {
+            this.maxEdge = maxEdge;
+        }
+
+        public int getMaxEdge() {
+            return maxEdge;
+        }
+    }
+
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final int EXIF_ORIENTATION = 0x0112;
+
+    // 50 megapixels: above any phone camera, about 200 MB once decoded
+    public static final long DEFAULT_MAX_PIXELS = 50_000_000L;
+
+    public static Map<Size, byte[]> render(byte[] original) throws IOException {
+        return render(original, DEFAULT_MAX_PIXELS);
+    }
+
+    public static Map<Size, byte[]> render(byte[] original, long maxPixels) throws IOException {
+        BufferedImage source = decode(original, maxPixels);
+
+        // largest first, each size scaled down from the previous one
+        Map<Size, byte[]> out = new EnumMap<>(Size.class);
+        BufferedImage current = orientedRgb(source, exifOrientation(original));
+        for (int i = Size.values().length - 1; i >= 0; i--) {
+            Size size = Size.values()[i];
+            current = scaleToFit(current, size.getMaxEdge());
+            out.put(size, encodeJpeg(current));
+        }
+        return out;
+    }
+
+    private static BufferedImage decode(byte[] original, long maxPixels) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(original))) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("Image is too large: " + width + "x" + height);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // one copy that converts to RGB and turns the pixels the way EXIF says the camera was held
+    private static BufferedImage orientedRgb(BufferedImage image, int orientation) {
+        if (orientation == 1 && image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        boolean swap = orientation >= 5;
+        BufferedImage rgb = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            // flatten transparency onto white, JPEG has no alpha channel
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(image, orientation(orientation, w, h), null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    // maps source pixels to display pixels for EXIF orientations 1-8
+    private static AffineTransform orientation(int orientation, int w, int h) {
+        switch (orientation) {
+            case 2: return new AffineTransform(-1, 0, 0, 1, w, 0);  // mirrored
+            case 3: return new AffineTransform(-1, 0, 0, -1, w, h); // upside down
+            case 4: return new AffineTransform(1, 0, 0, -1, 0, h);  // mirrored, upside down
+            case 5: return new AffineTransform(0, 1, 1, 0, 0, 0);   // mirrored, rotated
+            case 6: return new AffineTransform(0, 1, -1, 0, h, 0);  // rotate 90 clockwise
+            case 7: return new AffineTransform(0, -1, -1, 0, h, w); // mirrored, rotated
+            case 8: return new AffineTransform(0, -1, 1, 0, 0, w);  // rotate 90 counter-clockwise
+            default: return new AffineTransform();
+        }
+    }
+
+    /** EXIF orientation (1-8) from a JPEG's APP1 segment; 1 when absent or unreadable. */
+    static int exifOrientation(byte[] jpeg) {
+        if (jpeg.length < 4 || (jpeg[0] & 0xff) != 0xFF || (jpeg[1] & 0xff) != 0xD8) {
+            return 1;
+        }
+        int pos = 2;
+        while (pos + 4 <= jpeg.length && (jpeg[pos] & 0xff) == 0xFF) {
+            int marker = jpeg[pos + 1] & 0xff;
+            if (marker == 0xFF) {
+                pos++; // fill byte
+                continue;
+            }
+            if (marker == 0xDA || marker == 0xD9) {
+                return 1; // image data starts, no metadata after this
+            }
+            int length = u16(jpeg, pos + 2, false);
+            int end = pos + 2 + length;
+            if (length < 2 || end > jpeg.length) {
+                return 1;
+            }
+            if (marker == 0xE1 && length >= 16 && isExifHeader(jpeg, pos + 4)) {
+                return tiffOrientation(jpeg, pos + 10, end);
+            }
+            pos = end;
+        }
+        return 1;
+    }
+
+    private static boolean isExifHeader(byte[] b, int at) {
+        return b[at] == 'E' && b[at + 1] == 'x' && b[at + 2] == 'i' && b[at + 3] == 'f'
+            && b[at + 4] == 0 && b[at + 5] == 0;
+    }
+
+    // IFD0 of the TIFF structure starting at tiff; end bounds the APP1 segment
+    private static int tiffOrientation(byte[] b, int tiff, int end) {
+        boolean little;
+        if (b[tiff] == 'I' && b[tiff + 1] == 'I') {
+            little = true;
+        } else if (b[tiff] == 'M' && b[tiff + 1] == 'M') {
+            little = false;
+        } else {
+            return 1;
+        }
+        long offset = u32(b, tiff + 4, little);
+        if (offset < 8 || tiff + offset + 2 > end) {
+            return 1;
+        }
+        int ifd = tiff + (int) offset;
+        int entries = u16(b, ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (u16(b, entry, little) == EXIF_ORIENTATION) {
+                int value = u16(b, entry + 8, little);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int u16(byte[] b, int at, boolean little) {
+        int first = b[at] & 0xff;
+        int second = b[at + 1] & 0xff;
+        return little ? (second << 8) | first : (first << 8) | second;
+    }
+
+    private static long u32(byte[] b, int at, boolean little) {
+        long high = u16(b, little ? at + 2 : at, little);
+        long low = u16(b, little ? at : at + 2, little);
+        return (high << 16) | low;
+    }
+
+    // halves repeatedly, then one final step: sharper than a single big bilinear jump
+    private static BufferedImage scaleToFit(BufferedImage image, int maxEdge) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(w, h));
+        int targetW = Math.max(1, (int) Math.round(w * scale));
+        int targetH = Math.max(1, (int) Math.round(h * scale));
+
+        BufferedImage current = image;
+        while (current.getWidth() != targetW || current.getHeight() != targetH) {
+            int nextW = Math.max(targetW, current.getWidth() / 2);
+            int nextH = Math.max(targetH, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(nextW, nextH, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, nextW, nextH, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
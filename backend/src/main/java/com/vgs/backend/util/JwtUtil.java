@@ -1,22 +1,56 @@
 package com.vgs.backend.util;
 
+import com.vgs.backend.model.AuthUser;
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Component
 public class JwtUtil {
     private final Key key;
     private final long expirationMillis = 86_400_000L; // 1 day
 
-    public JwtUtil(@Value("${jwt.secret}") String base64Secret) {
+    // immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
+
+    // verified tokens keyed by SHA-256 of the token, kept until the token expires;
+    // LRU bounded at jwt.cache.max-size, so a miss costs O(1) however full it is
+    private final Map<String, AuthUser> verified;
+
+    private final MeterRegistry registry;
+    private final SchoolTags schoolTags;
+
+    public JwtUtil(@Value("${jwt.secret}") String base64Secret,
+                   @Value("${jwt.cache.max-size}") int maxCachedTokens,
+                   MeterRegistry registry,
+                   SchoolTags schoolTags) {
         byte[] secretBytes = Decoders.BASE64.decode(base64Secret);
         this.key = Keys.hmacShaKeyFor(secretBytes);
+        this.parser = Jwts.parserBuilder()
+                          .setSigningKey(key)
+                          .build();
+        this.verified = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AuthUser> eldest) {
+                return size() > maxCachedTokens;
+            }
+        };
+        this.registry = registry;
+        this.schoolTags = schoolTags;
     }
 
     public String generateToken(String email, String university) {
@@ -29,28 +63,70 @@ public class JwtUtil {
                    .compact();
     }
 
-    public String validateTokenAndGetEmail(String token) {
+    /**
+     * Verifies the token and returns who it belongs to. Repeat calls with the
+     * same token skip signature checking and claim parsing until it expires.
+     */
+    public AuthUser verify(String token) {
+        Timer.Sample sample = Timer.start(registry);
+        String cacheKey = hash(token);
+        AuthUser cached = lookup(cacheKey);
+        if (cached != null) {
+            stop(sample, cached, "cached");
+            return cached;
+        }
+
+        AuthUser user;
         try {
-            return Jwts.parserBuilder()
-                       .setSigningKey(key)
-                       .build()
-                       .parseClaimsJws(token)
-                       .getBody()
-                       .getSubject();
-        } catch (JwtException e) {
-            throw new RuntimeException("Invalid JWT token");
+            user = parse(token);
+        } catch (RuntimeException e) {
+            stop(sample, null, "invalid");
+            throw e;
         }
+        synchronized (verified) {
+            verified.put(cacheKey, user);
+        }
+        stop(sample, user, "verified");
+        return user;
     }
 
-    public Claims getAllClaims(String token) {
+    private void stop(Timer.Sample sample, AuthUser user, String outcome) {
+        sample.stop(registry.timer("jwt.verify",
+            "school", user == null ? SchoolTags.NONE : schoolTags.tagFor(user.getUniversity()),
+            "outcome", outcome));
+    }
+
+    private AuthUser parse(String token) {
         try {
-            return Jwts.parserBuilder()
-                       .setSigningKey(key)
-                       .build()
-                       .parseClaimsJws(token)
-                       .getBody();
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            return new AuthUser(
+                claims.getSubject(),
+                claims.get("university", String.class),
+                claims.getExpiration().toInstant()
+            );
         } catch (JwtException e) {
             throw new RuntimeException("Invalid JWT token");
         }
     }
+
+    private AuthUser lookup(String cacheKey) {
+        synchronized (verified) {
+            AuthUser cached = verified.get(cacheKey);
+            if (cached != null && !cached.getExpiresAt().isAfter(Instant.now())) {
+                verified.remove(cacheKey);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                                         .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -1,16 +1,112 @@
 package com.vgs.backend.util;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt on its own small pool so a burst of logins cannot tie up the
+ * servlet threads. When the pool and its queue are full, callers get a 503
+ * right away instead of waiting behind the backlog.
+ *
+ * Returned futures complete on a separate callback pool, so whatever the
+ * caller chains on (Mongo reads and writes) never holds a bcrypt worker.
+ */
+@Component
 public class PasswordHasher {
-    private static final PasswordEncoder encoder = new BCryptPasswordEncoder();
 
-    public static String hash(String plainPassword) {
-        return encoder.encode(plainPassword);
+    private final BCryptPasswordEncoder encoder;
+    private final MeterRegistry registry;
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService callbacks;
+
+    public PasswordHasher(@Value("${passwords.bcrypt.cost}") int cost,
+                          @Value("${passwords.hashing.threads}") int threads,
+                          @Value("${passwords.hashing.queue-size}") int queueSize,
+                          @Value("${passwords.hashing.callback-threads}") int callbackThreads,
+                          MeterRegistry registry) {
+        this.encoder = new BCryptPasswordEncoder(cost);
+        this.registry = registry;
+
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger n = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            r -> {
+                Thread t = new Thread(r, "password-hasher-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        registry.gauge("passwords.hashing.queue", workers.getQueue(), q -> q.size());
+
+        // fed only as fast as bcrypt finishes, so the unbounded queue stays short
+        AtomicInteger c = new AtomicInteger();
+        this.callbacks = Executors.newFixedThreadPool(callbackThreads, r -> {
+            Thread t = new Thread(r, "password-callback-" + c.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public CompletableFuture<String> hash(String plainPassword) {
+        return submit("hash", () -> encoder.encode(plainPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String plainPassword, String hashedPassword) {
+        return submit("matches", () -> encoder.matches(plainPassword, hashedPassword));
+    }
+
+    /**
+     * A fresh hash at the configured cost when {@code hashedPassword} was made
+     * with a lower one, otherwise empty. Best effort: also empty when the pool
+     * is busy, the next login will try again.
+     */
+    public CompletableFuture<Optional<String>> upgrade(String plainPassword, String hashedPassword) {
+        if (!encoder.upgradeEncoding(hashedPassword)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        try {
+            return hash(plainPassword).thenApply(Optional::of);
+        } catch (ResponseStatusException e) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(String operation, Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Timer.Sample sample = Timer.start(registry);
+                try {
+                    return work.get();
+                } finally {
+                    sample.stop(registry.timer("passwords.hashing", "operation", operation));
+                }
+            }, workers).thenApplyAsync(result -> result, callbacks);
+        } catch (RejectedExecutionException e) {
+            registry.counter("passwords.hashing.rejected", "operation", operation).increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many sign-in attempts right now, try again shortly");
+        }
     }
 
-    public static boolean matches(String plainPassword, String hashedPassword) {
-        return encoder.matches(plainPassword, hashedPassword);
+    @PreDestroy
+    public void close() {
+        workers.shutdown();
+        callbacks.shutdown();
     }
-}
\ No newline at end of file
+}
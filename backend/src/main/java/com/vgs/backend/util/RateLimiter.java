@@ -0,0 +1,172 @@
+package com.vgs.backend.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+/**
+ * In-process token buckets, one per (policy, key).
+ *
+ * Each bucket is a single {@link AtomicLong} holding the time at which it
+ * will be full again (the GCRA form of a token bucket), updated with CAS, so
+ * there are no locks on the request path. A bucket whose refill time has
+ * passed is indistinguishable from a missing one, which is what the sweeper
+ * removes. Removal first swaps the bucket to {@code DEAD}, so a request
+ * racing the sweeper either wins the CAS (and the bucket stays) or sees it
+ * dead and starts over on a fresh one; a token is never taken from a bucket
+ * that has already left the map.
+ *
+ * When a policy holds {@code ratelimit.max-keys-per-policy} keys, a new key
+ * makes room by evicting a tenth of them, those closest to full first, so a
+ * key spray costs the sprayed keys their history rather than everyone else
+ * their own bucket.
+ */
+@Component
+public class RateLimiter {
+
+    // never a real refill time in practice; marks a bucket that is being removed
+    private static final long DEAD = Long.MIN_VALUE;
+
+    private final int maxKeysPerPolicy;
+    private final List<Policy> policies = new CopyOnWriteArrayList<>();
+
+    public RateLimiter(@Value("${ratelimit.max-keys-per-policy}") int maxKeysPerPolicy) {
+        this.maxKeysPerPolicy = maxKeysPerPolicy;
+    }
+
+    /**
+     * Parses "capacity/period", period being s, m or h: "10/m" allows bursts of
+     * 10 and refills at 10 per minute.
+     */
+    public Policy policy(String name, String spec) {
+        String[] parts = spec.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rate limit for " + name + " must look like 10/m, got " + spec);
+        }
+        int capacity = Integer.parseInt(parts[0].trim());
+        long period;
+        switch (parts[1].trim()) {
+            case "s": period = TimeUnit.SECONDS.toNanos(1); break;
+            case "m": period = TimeUnit.MINUTES.toNanos(1); break;
+            case "h": period = TimeUnit.HOURS.toNanos(1); break;
+            default: throw new IllegalArgumentException("Unknown period in " + spec + " for " + name);
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity for " + name + " must be positive");
+        }
+        Policy policy = new Policy(name, capacity, period / capacity);
+        policies.add(policy);
+        return policy;
+    }
+
+    /** Drops buckets that have refilled completely; they carry no state. */
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-interval-ms}")
+    public void sweep() {
+        sweep(System.nanoTime());
+    }
+
+    void sweep(long now) {
+        for (Policy policy : policies) {
+            policy.removeWhere(remaining -> remaining <= 0, now);
+        }
+    }
+
+    public class Policy {
+        private final String name;
+        private final long emissionNanos;
+        private final long burstNanos;
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+        Policy(String name, int capacity, long emissionNanos) {
+            this.name = name;
+            this.emissionNanos = emissionNanos;
+            this.burstNanos = emissionNanos * capacity;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** Takes one token for {@code key}; returns 0 if allowed, else nanos until one is available. */
+        public long tryAcquire(String key) {
+            return tryAcquire(key, System.nanoTime());
+        }
+
+        long tryAcquire(String key, long now) {
+            while (true) {
+                AtomicLong bucket = bucketFor(key, now);
+                long fullAt = bucket.get();
+                if (fullAt == DEAD) {
+                    // swept under us; help it out of the map and start over
+                    buckets.remove(key, bucket);
+                    continue;
+                }
+                long next = Math.max(fullAt - now, 0) + now + emissionNanos;
+                long wait = next - now - burstNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (bucket.compareAndSet(fullAt, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        public int size() {
+            return buckets.size();
+        }
+
+        private AtomicLong bucketFor(String key, long now) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= maxKeysPerPolicy) {
+                evict(now);
+            }
+            return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        // one thread makes room for everyone; evicting a tenth at a time keeps this rare under a spray
+        private synchronized void evict(long now) {
+            if (buckets.size() < maxKeysPerPolicy) {
+                return;
+            }
+            removeWhere(remaining -> remaining <= 0, now);
+            int excess = buckets.size() - (maxKeysPerPolicy - Math.max(1, maxKeysPerPolicy / 10));
+            if (excess <= 0) {
+                return;
+            }
+            long[] remaining = buckets.values().stream()
+                .mapToLong(AtomicLong::get)
+                .filter(fullAt -> fullAt != DEAD)
+                .map(fullAt -> fullAt - now)
+                .sorted()
+                .toArray();
+            if (remaining.length == 0) {
+                return;
+            }
+            long cutoff = remaining[Math.min(excess, remaining.length) - 1];
+            removeWhere(r -> r <= cutoff, now);
+        }
+
+        // by time left until the bucket is full again
+        private void removeWhere(LongPredicate remaining, long now) {
+            for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+                AtomicLong bucket = entry.getValue();
+                long fullAt = bucket.get();
+                if (fullAt != DEAD && remaining.test(fullAt - now) && bucket.compareAndSet(fullAt, DEAD)) {
+                    buckets.remove(entry.getKey(), bucket);
+                }
+            }
+        }
+    }
+}
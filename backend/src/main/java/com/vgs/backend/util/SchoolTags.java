@@ -0,0 +1,62 @@
+package com.vgs.backend.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded "school" tag values for metrics. The first {@code max-values}
+ * schools seen keep their own slug; everything after that is reported as
+ * "other", so a flood of new schools cannot blow up the number of series.
+ */
+@Component
+public class SchoolTags {
+
+    public static final String REQUEST_ATTRIBUTE = "vgs.school";
+    public static final String NONE = "none";
+    public static final String OTHER = "other";
+
+    private final int maxValues;
+    private final Set<String> admitted = ConcurrentHashMap.newKeySet();
+
+    public SchoolTags(@Value("${metrics.school-tag.max-values}") int maxValues) {
+        this.maxValues = maxValues;
+    }
+
+    public String tagFor(String university) {
+        if (university == null || university.isBlank()) {
+            return NONE;
+        }
+        return tagForSlug(SlugUtil.slugify(university));
+    }
+
+    /** Same as {@link #tagFor}, for callers that only have the school's slug (e.g. from an S3 key). */
+    public String tagForSlug(String slug) {
+        if (slug == null || slug.isBlank()) {
+            return NONE;
+        }
+        if (admitted.contains(slug)) {
+            return slug;
+        }
+        synchronized (admitted) {
+            if (admitted.size() < maxValues) {
+                admitted.add(slug);
+                return slug;
+            }
+        }
+        return OTHER;
+    }
+
+    /** Tag of the authenticated request on this thread; "none" off request threads. */
+    public String current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object school = attributes == null
+            ? null
+            : attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return school instanceof String ? (String) school : NONE;
+    }
+}
@@ -2,41 +2,82 @@ package com.vgs.backend.util;
 
 import com.vgs.backend.model.UniversityEntry;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.Set;
-import java.util.HashSet;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 @Component
 public class UniversityDomainMap {
 
-    private final Map<String, Set<String>> universityDomainMap = new HashMap<>();
-    
-    public Map<String, Set<String>> getUniversityDomainMap() {
-        return universityDomainMap;
+    // built on first use so the data never sits on the startup path
+    private volatile UniversityIndex index;
+
+    public UniversityIndex getIndex() {
+        UniversityIndex loaded = index;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = index;
+                if (loaded == null) {
+                    loaded = new UniversityIndex(load());
+                    index = loaded;
+                    System.out.println("🎓 Loaded " + loaded);
+                }
+            }
+        }
+        return loaded;
     }
 
-    @PostConstruct
-    public void init() {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            InputStream is = getClass().getClassLoader().getResourceAsStream("data/us_universities.json");
-            List<UniversityEntry> universities = mapper.readValue(is, new TypeReference<List<UniversityEntry>>() {});
+    // true when the email's host (or a parent domain of it) belongs to the university
+    public boolean matches(String university, String email) {
+        UniversityIndex index = getIndex();
+        for (int id : index.forDomain(email)) {
+            if (index.name(id).equals(university)) return true;
+        }
+        return false;
+    }
 
-            for (UniversityEntry uni : universities) {
-                universityDomainMap.put(uni.getName(), new HashSet<>(uni.getDomains()));
+    // prefer the snapshot written at build time, fall back to the source json
+    static List<UniversityEntry> load() {
+        ClassLoader cl = UniversityDomainMap.class.getClassLoader();
+        URL snapshot = cl.getResource(UniversitySnapshot.RESOURCE);
+        if (snapshot != null) {
+            try {
+                return UniversitySnapshot.decode(read(snapshot));
+            } catch (IOException e) {
+                System.out.println("⚠️ University snapshot unreadable, falling back to json: " + e.getMessage());
             }
+        } else {
+            System.out.println("⚠️ No university snapshot on the classpath, parsing json");
+        }
 
-        } catch (Exception e) {
+        try (InputStream is = cl.getResourceAsStream(UniversitySnapshot.JSON_RESOURCE)) {
+            if (is == null) {
+                throw new IOException(UniversitySnapshot.JSON_RESOURCE + " not found");
+            }
+            return UniversitySnapshot.parseJson(is);
+        } catch (IOException e) {
             e.printStackTrace();
             throw new RuntimeException("Failed to load university domains");
         }
     }
+
+    // map the file directly when running from an exploded classpath, otherwise read it out of the jar
+    private static ByteBuffer read(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            try (FileChannel channel = FileChannel.open(Path.of(URI.create(url.toString())), StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        try (InputStream in = url.openStream()) {
+            return ByteBuffer.wrap(in.readAllBytes());
+        }
+    }
 }
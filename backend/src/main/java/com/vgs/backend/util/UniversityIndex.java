@@ -0,0 +1,275 @@
+package com.vgs.backend.util;
+
+import com.vgs.backend.model.UniversityEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable lookup structure over the university list.
+ *
+ * Names are indexed in a trie stored as flat arrays. Every word-boundary
+ * suffix of a normalized name is a key ("university of california berkeley",
+ * "of california berkeley", ..., "berkeley"), so a prefix query matches from
+ * the start of any word. Nodes are laid out in key order, which makes each
+ * node's subtree a contiguous range of the sorted key list; a prefix query is
+ * one walk down the trie plus a slice of that range.
+ *
+ * Domains are kept in a hash map for reverse lookup, walking up the labels of
+ * a host so that {@code cs.berkeley.edu} finds {@code berkeley.edu}.
+ */
+public class UniversityIndex {
+
+    private final String[] names;
+    private final String[] normalizedNames;
+    private final List<List<String>> domains;
+
+    // trie, one slot per node
+    private final int[] childStart;
+    private final int[] childCount;
+    private final int[] rangeStart;
+    private final int[] rangeEnd;
+    // edges, children of a node are contiguous and sorted by label
+    private final char[] edgeLabel;
+    private final int[] edgeTarget;
+    // university id for each key, in sorted key order
+    private final int[] keyOwners;
+
+    private final Map<String, int[]> byDomain;
+
+    // the data never changes, so this is computed once rather than per request
+    private final String fingerprint;
+
+    public UniversityIndex(List<UniversityEntry> universities) {
+        int n = universities.size();
+        this.names = new String[n];
+        this.normalizedNames = new String[n];
+        this.domains = new ArrayList<>(n);
+
+        List<Key> keys = new ArrayList<>();
+        Map<String, List<Integer>> domainOwners = new HashMap<>();
+        for (int id = 0; id < n; id++) {
+            UniversityEntry u = universities.get(id);
+            names[id] = u.getName();
+            List<String> uniDomains = u.getDomains() != null ? u.getDomains() : Collections.emptyList();
+            domains.add(Collections.unmodifiableList(new ArrayList<>(uniDomains)));
+
+            String normalized = normalize(u.getName());
+            normalizedNames[id] = normalized;
+            keys.add(new Key(normalized, id));
+            for (int i = 0; i < normalized.length(); i++) {
+                if (normalized.charAt(i) == ' ') {
+                    keys.add(new Key(normalized.substring(i + 1), id));
+                }
+            }
+            for (String domain : uniDomains) {
+                domainOwners.computeIfAbsent(domain.toLowerCase(Locale.ROOT), d -> new ArrayList<>()).add(id);
+            }
+        }
+        keys.sort(Comparator.comparing((Key k) -> k.text).thenComparingInt(k -> k.owner));
+
+        this.keyOwners = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            keyOwners[i] = keys.get(i).owner;
+        }
+
+        Builder builder = new Builder(keys);
+        builder.build(0, keys.size(), 0);
+        this.childStart = builder.childStart.stream().mapToInt(Integer::intValue).toArray();
+        this.childCount = builder.childCount.stream().mapToInt(Integer::intValue).toArray();
+        this.rangeStart = builder.rangeStart.stream().mapToInt(Integer::intValue).toArray();
+        this.rangeEnd = builder.rangeEnd.stream().mapToInt(Integer::intValue).toArray();
+        this.edgeLabel = new char[builder.edgeLabel.size()];
+        for (int i = 0; i < edgeLabel.length; i++) {
+            edgeLabel[i] = builder.edgeLabel.get(i);
+        }
+        this.edgeTarget = builder.edgeTarget.stream().mapToInt(Integer::intValue).toArray();
+
+        this.byDomain = new HashMap<>();
+        domainOwners.forEach((d, owners) ->
+            byDomain.put(d, owners.stream().mapToInt(Integer::intValue).toArray()));
+
+        // over the entries in name order, so json and snapshot loads of the same data agree
+        Integer[] byName = new Integer[n];
+        for (int id = 0; id < n; id++) {
+            byName[id] = id;
+        }
+        Arrays.sort(byName, Comparator.<Integer, String>comparing(id -> names[id])
+                                      .thenComparing(id -> domains.get(id).toString()));
+        int h = 1;
+        for (int id : byName) {
+            h = 31 * h + names[id].hashCode();
+            h = 31 * h + domains.get(id).hashCode();
+        }
+        this.fingerprint = Integer.toHexString(h) + "-" + n;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public List<String> domains(int id) {
+        return domains.get(id);
+    }
+
+    /**
+     * Up to {@code limit} universities with a word starting with {@code prefix}
+     * (case-insensitive). Names that start with the prefix come first, then
+     * alphabetical order.
+     */
+    public List<Integer> complete(String prefix, int limit) {
+        String query = normalize(prefix);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int node = 0;
+        for (int i = 0; i < query.length() && node >= 0; i++) {
+            node = child(node, query.charAt(i));
+        }
+        if (node < 0) {
+            return Collections.emptyList();
+        }
+
+        Set<Integer> matches = new LinkedHashSet<>();
+        for (int i = rangeStart[node]; i < rangeEnd[node]; i++) {
+            matches.add(keyOwners[i]);
+        }
+        List<Integer> ranked = new ArrayList<>(matches);
+        ranked.sort(Comparator
+            .comparing((Integer id) -> !normalizedNames[id].startsWith(query))
+            .thenComparing(id -> names[id]));
+        return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+    }
+
+    /**
+     * Universities owning {@code host} or its closest listed parent domain.
+     * Accepts a bare host or a full email address.
+     */
+    public List<Integer> forDomain(String host) {
+        String domain = host.toLowerCase(Locale.ROOT).trim();
+        int at = domain.lastIndexOf('@');
+        if (at >= 0) {
+            domain = domain.substring(at + 1);
+        }
+        while (domain.indexOf('.') > 0) {
+            int[] owners = byDomain.get(domain);
+            if (owners != null) {
+                List<Integer> ids = new ArrayList<>(owners.length);
+                for (int id : owners) ids.add(id);
+                return ids;
+            }
+            domain = domain.substring(domain.indexOf('.') + 1);
+        }
+        return Collections.emptyList();
+    }
+
+    private int child(int node, char label) {
+        int lo = childStart[node];
+        int hi = lo + childCount[node] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char c = edgeLabel[mid];
+            if (c < label) lo = mid + 1;
+            else if (c > label) hi = mid - 1;
+            else return edgeTarget[mid];
+        }
+        return -1;
+    }
+
+    static String normalize(String s) {
+        if (s == null) {
+            return "";
+        }
+        return s.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+
+    private static class Key {
+        final String text;
+        final int owner;
+
+        Key(String text, int owner) {
+            this.text = text;
+            this.owner = owner;
+        }
+    }
+
+    /** Builds the flat arrays from keys sorted by text, depth first. */
+    private static class Builder {
+        final List<Key> keys;
+        final List<Integer> childStart = new ArrayList<>();
+        final List<Integer> childCount = new ArrayList<>();
+        final List<Integer> rangeStart = new ArrayList<>();
+        final List<Integer> rangeEnd = new ArrayList<>();
+        final List<Character> edgeLabel = new ArrayList<>();
+        final List<Integer> edgeTarget = new ArrayList<>();
+
+        Builder(List<Key> keys) {
+            this.keys = keys;
+        }
+
+        int build(int lo, int hi, int depth) {
+            int node = childStart.size();
+            childStart.add(0);
+            childCount.add(0);
+            rangeStart.add(lo);
+            rangeEnd.add(hi);
+
+            // keys that end here sort before any longer key with this prefix
+            int i = lo;
+            while (i < hi && keys.get(i).text.length() == depth) {
+                i++;
+            }
+
+            // first pass: find child groups so the edges can be laid out contiguously
+            List<int[]> groups = new ArrayList<>();
+            while (i < hi) {
+                char c = keys.get(i).text.charAt(depth);
+                int j = i;
+                while (j < hi && keys.get(j).text.charAt(depth) == c) {
+                    j++;
+                }
+                groups.add(new int[] {c, i, j});
+                i = j;
+            }
+
+            int firstEdge = edgeLabel.size();
+            for (int[] g : groups) {
+                edgeLabel.add((char) g[0]);
+                edgeTarget.add(-1);
+            }
+            childStart.set(node, firstEdge);
+            childCount.set(node, groups.size());
+
+            for (int g = 0; g < groups.size(); g++) {
+                int target = build(groups.get(g)[1], groups.get(g)[2], depth + 1);
+                edgeTarget.set(firstEdge + g, target);
+            }
+            return node;
+        }
+    }
+
+    /** Stable fingerprint of the data, used for HTTP validators. */
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public String toString() {
+        return "UniversityIndex[" + names.length + " universities, " + childStart.length + " trie nodes]";
+    }
+}
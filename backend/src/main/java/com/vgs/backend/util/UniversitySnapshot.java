@@ -0,0 +1,140 @@
+package com.vgs.backend.util;
+
+import com.vgs.backend.model.UniversityEntry;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Binary form of the university list, written at build time so boot does not
+ * need Jackson.
+ *
+ * Layout (big endian): magic, version, a sorted table of distinct strings
+ * (length-prefixed UTF-8), then the universities sorted by name, each as a
+ * name index and a list of domain indexes into the table.
+ */
+public final class UniversitySnapshot {
+
+    public static final String JSON_RESOURCE = "data/us_universities.json";
+    public static final String RESOURCE = "data/us_universities.bin";
+
+    private static final int MAGIC = 0x56475355; // "VGSU"
+    private static final int VERSION = 1;
+
+    private UniversitySnapshot() {
+    }
+
+    public static List<UniversityEntry> parseJson(InputStream in) throws IOException {
+        return new ObjectMapper().readValue(in, new TypeReference<List<UniversityEntry>>() {});
+    }
+
+    public static byte[] encode(List<UniversityEntry> universities) throws IOException {
+        TreeSet<String> distinct = new TreeSet<>();
+        for (UniversityEntry u : universities) {
+            distinct.add(u.getName());
+            if (u.getDomains() != null) distinct.addAll(u.getDomains());
+        }
+        String[] table = distinct.toArray(new String[0]);
+        Map<String, Integer> indexOf = new HashMap<>();
+        for (int i = 0; i < table.length; i++) {
+            indexOf.put(table[i], i);
+        }
+
+        List<UniversityEntry> sorted = new ArrayList<>(universities);
+        sorted.sort(Comparator.comparing(UniversityEntry::getName));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(table.length);
+        for (String s : table) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(utf8.length);
+            out.write(utf8);
+        }
+        out.writeInt(sorted.size());
+        for (UniversityEntry u : sorted) {
+            List<String> domains = u.getDomains() != null ? u.getDomains() : List.of();
+            out.writeInt(indexOf.get(u.getName()));
+            out.writeShort(domains.size());
+            for (String d : domains) {
+                out.writeInt(indexOf.get(d));
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public static List<UniversityEntry> decode(ByteBuffer buf) throws IOException {
+        try {
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                throw new IOException("Not a university snapshot (or an older version)");
+            }
+            String[] table = new String[buf.getInt()];
+            for (int i = 0; i < table.length; i++) {
+                byte[] utf8 = new byte[buf.getShort() & 0xFFFF];
+                buf.get(utf8);
+                table[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+
+            int count = buf.getInt();
+            List<UniversityEntry> universities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                UniversityEntry u = new UniversityEntry();
+                u.setName(table[buf.getInt()]);
+                String[] domains = new String[buf.getShort() & 0xFFFF];
+                for (int d = 0; d < domains.length; d++) {
+                    domains[d] = table[buf.getInt()];
+                }
+                u.setDomains(Arrays.asList(domains));
+                universities.add(u);
+            }
+            return universities;
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt university snapshot", e);
+        }
+    }
+
+    public static void write(List<UniversityEntry> universities, OutputStream out) throws IOException {
+        out.write(encode(universities));
+    }
+
+    // build step: java UniversitySnapshot <source.json> <target.bin>
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("usage: UniversitySnapshot <source.json> <target.bin>");
+        }
+        Path source = Path.of(args[0]);
+        Path target = Path.of(args[1]);
+
+        List<UniversityEntry> universities;
+        try (InputStream in = Files.newInputStream(source)) {
+            universities = parseJson(in);
+        }
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        try (OutputStream out = Files.newOutputStream(target)) {
+            write(universities, out);
+        }
+        System.out.println("🎓 Wrote " + universities.size() + " universities to " + target
+                + " (" + Files.size(target) + " bytes, json " + Files.size(source) + " bytes)");
+    }
+}
@@ -0,0 +1,43 @@
+package com.vgs.backend.repository;
+
+import com.vgs.backend.model.Listing;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ListingCursorTests {
+
+    @Test
+    void roundTripsEverySort() {
+        Listing last = new Listing();
+        last.setId("abc");
+        last.setPrice(12.5);
+        last.setDatePosted(LocalDateTime.of(2025, 3, 1, 9, 30));
+
+        for (ListingSort sort : new ListingSort[] {ListingSort.NEWEST, ListingSort.PRICE_ASC, ListingSort.PRICE_DESC}) {
+            ListingCursor cursor = ListingCursor.decode(ListingCursor.after(last, sort).encode(), sort);
+            assertEquals("abc", cursor.getId());
+            assertEquals(sort, cursor.getSort());
+        }
+        assertEquals(40, ListingCursor.decode(ListingCursor.atOffset(40).encode(), ListingSort.RELEVANCE).offset());
+    }
+
+    @Test
+    void rejectsForgedOrMismatchedTokens() {
+        String newest = ListingCursor.atOffset(0).encode();
+        assertThrows(IllegalArgumentException.class, () -> ListingCursor.decode(newest, ListingSort.NEWEST));
+        assertThrows(IllegalArgumentException.class, () -> ListingCursor.decode("not base64!", ListingSort.NEWEST));
+        assertThrows(IllegalArgumentException.class, () -> ListingCursor.decode(token("PRICE_ASC|cheap|x"), ListingSort.PRICE_ASC));
+        assertThrows(IllegalArgumentException.class, () -> ListingCursor.decode(token("RELEVANCE|-1|"), ListingSort.RELEVANCE));
+        assertThrows(IllegalArgumentException.class, () -> ListingCursor.atOffset(-5));
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,33 @@
+package com.vgs.backend.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MessageCursorTests {
+
+    @Test
+    void roundTripsTimeAndId() {
+        Instant at = Instant.parse("2025-03-01T09:30:00.123456Z");
+        MessageCursor cursor = MessageCursor.decode(MessageCursor.after(at, "abc").encode());
+        assertEquals(at, cursor.getAt());
+        assertEquals("abc", cursor.getId());
+    }
+
+    @Test
+    void rejectsForgedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> MessageCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> MessageCursor.decode(token("yesterday|abc")));
+        assertThrows(IllegalArgumentException.class, () -> MessageCursor.decode(token("2025-03-01T09:30:00Z")));
+        assertThrows(IllegalArgumentException.class, () -> MessageCursor.decode(token("2025-03-01T09:30:00Z|")));
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
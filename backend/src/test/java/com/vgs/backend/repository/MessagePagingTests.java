@@ -0,0 +1,111 @@
+package com.vgs.backend.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.vgs.backend.model.Message;
+import com.vgs.backend.model.MessageThread;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pages through conversations and inboxes where several items share a
+ * timestamp, which a time-only cursor would skip or repeat at page edges.
+ */
+class MessagePagingTests {
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void start() {
+        mongod = Mongod.instance().start(Version.Main.V7_0);
+        ServerAddress address = mongod.current().getServerAddress();
+        client = MongoClients.create("mongodb://" + address.getHost() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(client, "vgs-paging-test");
+    }
+
+    @AfterAll
+    static void stop() {
+        client.close();
+        mongod.close();
+    }
+
+    @Test
+    void conversationPagesNeitherSkipNorRepeatMessagesSentInTheSameInstant() {
+        Instant same = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Message m = new Message();
+            m.setConversationId("a|b");
+            m.setSenderId("a");
+            m.setRecipientId("b");
+            m.setText("m" + i);
+            // two earlier messages, then five sent in the same millisecond
+            m.setSentAt(i < 2 ? same.minusSeconds(2 - i) : same);
+            expected.add(mongoTemplate.insert(m).getId());
+        }
+
+        MessageRepositoryImpl repository = new MessageRepositoryImpl(mongoTemplate);
+        List<String> seen = new ArrayList<>();
+        MessageCursor cursor = null;
+        List<Message> page;
+        do {
+            page = repository.findPage("a|b", cursor, 2);
+            seen.addAll(page.stream().map(Message::getId).collect(Collectors.toList()));
+            if (!page.isEmpty()) {
+                Message last = page.get(page.size() - 1);
+                cursor = MessageCursor.decode(MessageCursor.after(last.getSentAt(), last.getId()).encode());
+            }
+        } while (page.size() == 2);
+
+        assertEquals(expected.size(), seen.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(seen));
+        // newest first: the two older messages come last
+        assertEquals(List.of(expected.get(1), expected.get(0)), seen.subList(5, 7));
+    }
+
+    @Test
+    void threadPagesNeitherSkipNorRepeatThreadsUpdatedInTheSameInstant() {
+        Instant same = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        for (int i = 0; i < 5; i++) {
+            MessageThread t = new MessageThread();
+            t.setOwnerId("me");
+            t.setCounterpartId("user" + i);
+            t.setLastAt(same);
+            mongoTemplate.insert(t);
+        }
+
+        MessageThreadRepositoryImpl repository = new MessageThreadRepositoryImpl(mongoTemplate);
+        List<String> seen = new ArrayList<>();
+        MessageCursor cursor = null;
+        List<MessageThread> page;
+        do {
+            page = repository.findPageByOwnerId("me", cursor, 2);
+            seen.addAll(page.stream().map(MessageThread::getCounterpartId).collect(Collectors.toList()));
+            if (!page.isEmpty()) {
+                MessageThread last = page.get(page.size() - 1);
+                cursor = MessageCursor.after(last.getLastAt(), last.getId());
+            }
+        } while (page.size() == 2);
+
+        assertEquals(5, seen.size());
+        assertEquals(5, seen.stream().distinct().count());
+    }
+}
@@ -0,0 +1,315 @@
+package com.vgs.backend.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.vgs.backend.config.UnindexedQueryListener;
+import com.vgs.backend.model.Listing;
+import com.vgs.backend.service.AuthCodeService;
+import com.vgs.backend.service.IndexBootstrap;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every repository query method (and the atomic code operations) against
+ * an embedded mongod with the declared indexes built, captures the commands
+ * they send, and explains each one. Any winning plan containing a COLLSCAN
+ * fails the build, so a new query method needs an index to go with it.
+ *
+ * Query methods are found by reflection: every method a repository interface
+ * in this package declares itself or gets from one of its custom fragments,
+ * blocking and reactive alike. Arguments are made up from the parameter
+ * types; a type {@link #sample} doesn't know fails the test, so it has to be
+ * taught rather than silently skipped.
+ */
+class RepositoryIndexUsageTests {
+
+    private static final Set<String> EXPLAINABLE = Set.of("find", "count", "findAndModify", "update", "delete", "aggregate", "distinct");
+    private static final String DATABASE = "vgs-index-test";
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static MongoClient client;
+    private static com.mongodb.reactivestreams.client.MongoClient reactiveClient;
+    private static MongoTemplate mongoTemplate;
+    private static ReactiveMongoTemplate reactiveMongoTemplate;
+    private static final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+
+    @BeforeAll
+    static void start() throws Exception {
+        mongod = Mongod.instance().start(Version.Main.V7_0);
+        ServerAddress address = mongod.current().getServerAddress();
+        MongoClientSettings settings = MongoClientSettings.builder()
+            .applyConnectionString(new ConnectionString("mongodb://" + address.getHost() + ":" + address.getPort()))
+            .addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    if (EXPLAINABLE.contains(event.getCommandName())) {
+                        commands.add(event.getCommand().clone());
+                    }
+                }
+            })
+            .build();
+        client = MongoClients.create(settings);
+        reactiveClient = com.mongodb.reactivestreams.client.MongoClients.create(settings);
+
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setInitialEntitySet(documentClasses());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        mongoTemplate = new MongoTemplate(new SimpleMongoClientDatabaseFactory(client, DATABASE), converter);
+        reactiveMongoTemplate = new ReactiveMongoTemplate(
+            new SimpleReactiveMongoDatabaseFactory(reactiveClient, DATABASE), converter);
+
+        IndexBootstrap indexes = new IndexBootstrap(mongoTemplate, mappingContext,
+            new UnindexedQueryListener(new SimpleMeterRegistry()), "create", "");
+        indexes.bootstrap();
+    }
+
+    @AfterAll
+    static void stop() {
+        reactiveClient.close();
+        client.close();
+        mongod.close();
+    }
+
+    @Test
+    void repositoryQueriesUseIndexes() throws Exception {
+        Map<String, List<BsonDocument>> sent = new LinkedHashMap<>();
+        int methods = 0;
+
+        for (Class<?> repository : repositoryInterfaces()) {
+            Object instance = repositoryFor(repository);
+            for (Method method : queryMethods(repository)) {
+                methods++;
+                String name = repository.getSimpleName() + "." + method.getName();
+                for (Object[] args : argumentsFor(method)) {
+                    commands.clear();
+                    await(method.invoke(instance, args));
+                    sent.computeIfAbsent(name, n -> new ArrayList<>()).addAll(commands);
+                }
+            }
+        }
+        assertTrue(methods > 0, "no repository query methods found");
+
+        AuthCodeService authCodes = new AuthCodeService(mongoTemplate);
+        commands.clear();
+        authCodes.issueVerificationCode("a@school.edu");
+        authCodes.verify("a@school.edu", "000000");
+        String token = authCodes.issueResetToken("a@school.edu").orElseThrow();
+        authCodes.resetTokenOwner(token);
+        authCodes.resetPassword(token, "hash");
+        authCodes.upgradePasswordHash("a@school.edu", "hash", "rehash");
+        sent.put("AuthCodeService", new ArrayList<>(commands));
+
+        List<String> scans = new ArrayList<>();
+        sent.forEach((name, sentCommands) -> {
+            for (BsonDocument command : sentCommands) {
+                Document plan = explain(command);
+                if (hasStage(plan, "COLLSCAN")) {
+                    scans.add(name + ": " + strip(command).toJson());
+                }
+            }
+        });
+        assertTrue(scans.isEmpty(), "queries without a supporting index:\n" + String.join("\n", scans));
+    }
+
+    // interfaces in this package that are Spring Data repositories
+    private static List<Class<?>> repositoryInterfaces() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter(new AssignableTypeFilter(Repository.class));
+        List<Class<?>> repositories = new ArrayList<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(RepositoryIndexUsageTests.class.getPackageName())) {
+            repositories.add(Class.forName(candidate.getBeanClassName()));
+        }
+        repositories.sort(Comparator.comparing(Class::getName));
+        return repositories;
+    }
+
+    // a custom fragment lives in <Repository>Impl, constructed from the matching template
+    private static Object repositoryFor(Class<?> repository) throws Exception {
+        boolean reactive = ReactiveCrudRepository.class.isAssignableFrom(repository);
+        Object template = reactive ? reactiveMongoTemplate : mongoTemplate;
+        RepositoryFragments fragments = RepositoryFragments.empty();
+        try {
+            Class<?> impl = Class.forName(repository.getName() + "Impl");
+            fragments = RepositoryFragments.just(impl.getConstructor(template.getClass()).newInstance(template));
+        } catch (ClassNotFoundException e) {
+            // no custom methods
+        }
+        return reactive
+            ? new ReactiveMongoRepositoryFactory(reactiveMongoTemplate).getRepository(repository, fragments)
+            : new MongoRepositoryFactory(mongoTemplate).getRepository(repository, fragments);
+    }
+
+    // declared on the repository or one of our fragments; inherited CRUD methods are Spring's business
+    private static List<Method> queryMethods(Class<?> repository) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : repository.getMethods()) {
+            if (method.getDeclaringClass().getPackage().equals(repository.getPackage())
+                && !method.isDefault() && !Modifier.isStatic(method.getModifiers())) {
+                methods.add(method);
+            }
+        }
+        methods.sort(Comparator.comparing(Method::toGenericString));
+        return methods;
+    }
+
+    // one call per page order (relevance is served by the search index), with and without a cursor
+    private static List<Object[]> argumentsFor(Method method) {
+        List<Class<?>> types = Arrays.asList(method.getParameterTypes());
+        List<ListingSort> sorts = types.contains(ListingSort.class)
+            ? Arrays.stream(ListingSort.values()).filter(s -> s != ListingSort.RELEVANCE).collect(Collectors.toList())
+            : Collections.singletonList(null);
+        List<Boolean> cursors = types.contains(ListingCursor.class) || types.contains(MessageCursor.class)
+            ? List.of(false, true)
+            : List.of(false);
+
+        List<Object[]> calls = new ArrayList<>();
+        for (ListingSort sort : sorts) {
+            for (boolean withCursor : cursors) {
+                Object[] args = new Object[types.size()];
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = sample(types.get(i), sort, withCursor, method);
+                }
+                calls.add(args);
+            }
+        }
+        return calls;
+    }
+
+    private static Object sample(Class<?> type, ListingSort sort, boolean withCursor, Method method) {
+        if (type == String.class) return "a@school.edu";
+        if (type.isAssignableFrom(List.class)) return List.of("a@school.edu", "b@school.edu");
+        if (type == Double.class || type == double.class) return 5.0;
+        if (type == Integer.class || type == int.class) return 20;
+        if (type == Long.class || type == long.class) return 20L;
+        if (type == Boolean.class || type == boolean.class) return false;
+        if (type == Instant.class) return Instant.now();
+        if (type == LocalDateTime.class) return LocalDateTime.now();
+        if (type == Pageable.class) return PageRequest.of(0, 20);
+        if (type == ListingSort.class) return sort;
+        if (type == ListingCursor.class) {
+            if (!withCursor) return null;
+            Listing last = new Listing();
+            last.setId("000000000000000000000001");
+            last.setPrice(10);
+            last.setDatePosted(LocalDateTime.now());
+            return ListingCursor.after(last, sort);
+        }
+        if (type == MessageCursor.class) {
+            return withCursor ? MessageCursor.after(Instant.now(), "000000000000000000000001") : null;
+        }
+        throw new IllegalArgumentException("No sample value for " + type.getName() + " in " + method
+                                           + "; add one to RepositoryIndexUsageTests.sample");
+    }
+
+    private static void await(Object result) {
+        if (result instanceof Publisher) {
+            Flux.from((Publisher<?>) result).collectList().block();
+        }
+    }
+
+    private static Document explain(BsonDocument command) {
+        Document explain = new Document("explain", strip(command)).append("verbosity", "queryPlanner");
+        return client.getDatabase(DATABASE).runCommand(explain);
+    }
+
+    // session and cluster fields the driver adds aren't allowed inside explain
+    private static BsonDocument strip(BsonDocument command) {
+        BsonDocument copy = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")) {
+                copy.put(key, value);
+            }
+        });
+        return copy;
+    }
+
+    private static boolean hasStage(Object node, String stage) {
+        if (node instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) node).entrySet()) {
+                if ("stage".equals(entry.getKey()) && stage.equals(entry.getValue())) {
+                    return true;
+                }
+                // rejected plans may scan; only the winning plan matters
+                if (!"rejectedPlans".equals(entry.getKey()) && hasStage(entry.getValue(), stage)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List) {
+            for (Object child : (List<?>) node) {
+                if (hasStage(child, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Set<Class<?>> documentClasses() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(org.springframework.data.mongodb.core.mapping.Document.class));
+        Set<Class<?>> classes = new HashSet<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents("com.vgs.backend.model")) {
+            classes.add(Class.forName(candidate.getBeanClassName()));
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.vgs.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InProcessMessageBrokerTests {
+
+    @Test
+    void subscribingWhileTheLastListenerCancelsStillDelivers() throws Exception {
+        InProcessMessageBroker broker = new InProcessMessageBroker();
+        MessageBroker.PushEvent event = new MessageBroker.PushEvent("message", "hi");
+        int rounds = 20_000;
+        CyclicBarrier start = new CyclicBarrier(2);
+
+        for (int r = 0; r < rounds; r++) {
+            String user = "user" + r;
+            MessageBroker.Subscription leaving = broker.subscribe(user, e -> { });
+            AtomicInteger received = new AtomicInteger();
+
+            // the cancel empties the user's list while the new tab subscribes to it
+            Thread canceller = new Thread(() -> {
+                await(start);
+                leaving.cancel();
+            });
+            canceller.start();
+            await(start);
+            broker.subscribe(user, e -> received.incrementAndGet());
+            canceller.join();
+
+            broker.publish(user, event);
+            assertEquals(1, received.get(), "round " + r);
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.Listing;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ListingSearchIndexTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Test
+    void ranksByFieldWeightThenNewest() {
+        ListingSearchIndex.SchoolIndex index = new ListingSearchIndex.SchoolIndex();
+        index.add(listing("a", "oak desk", "", List.of(), 40, 3));
+        index.add(listing("b", "chair", "goes with a desk", List.of(), 20, 2));
+        index.add(listing("c", "lamp", "", List.of("desk"), 10, 1));
+        index.add(listing("d", "desk lamp", "", List.of(), 15, 0));
+
+        assertEquals(List.of("d", "a", "c", "b"), search(index, "desk", List.of(), null, null, 0, 10).ids);
+        // the last term is a prefix of titles and descriptions; tags match whole
+        assertEquals(List.of("d", "a", "b"), search(index, "des", List.of(), null, null, 0, 10).ids);
+        // every term must match somewhere
+        assertEquals(List.of("d", "c"), search(index, "desk lamp", List.of(), null, null, 0, 10).ids);
+    }
+
+    @Test
+    void filtersByTagsPriceAndRemovals() {
+        ListingSearchIndex.SchoolIndex index = new ListingSearchIndex.SchoolIndex();
+        index.add(listing("a", "desk", "", List.of("furniture"), 40, 0));
+        index.add(listing("b", "desk", "", List.of("office"), 20, 1));
+        index.add(listing("c", "desk", "", List.of("furniture"), 10, 2));
+
+        assertEquals(List.of("a", "c"), search(index, "desk", List.of("furniture"), null, null, 0, 10).ids);
+        assertEquals(List.of("b"), search(index, null, List.of(), 15.0, 30.0, 0, 10).ids);
+
+        index.remove("c");
+        assertEquals(List.of("a", "b"), search(index, null, List.of(), null, null, 0, 10).ids);
+        // adding the same listing twice is a no-op
+        index.add(listing("a", "desk", "", List.of("furniture"), 40, 0));
+        assertEquals(2, search(index, "desk", List.of(), null, null, 0, 10).ids.size());
+    }
+
+    @Test
+    void pagesThroughTheRankingWithoutGapsOrRepeats() {
+        ListingSearchIndex.SchoolIndex index = new ListingSearchIndex.SchoolIndex();
+        for (int i = 0; i < 50; i++) {
+            // three score levels, ties broken by age
+            String title = i % 3 == 0 ? "red bike" : "bike";
+            String description = i % 3 == 1 ? "red" : "";
+            index.add(listing("l" + i, title, description, List.of(), i, i % 7));
+        }
+        List<String> all = search(index, "bike", List.of(), null, null, 0, 100).ids;
+        assertEquals(50, all.size());
+
+        List<String> paged = new ArrayList<>();
+        int offset = 0;
+        while (offset >= 0) {
+            ListingSearchIndex.Hits hits = search(index, "bike", List.of(), null, null, offset, 7);
+            paged.addAll(hits.ids);
+            offset = hits.nextOffset;
+        }
+        assertEquals(all, paged);
+
+        assertEquals(List.of(), search(index, "bike", List.of(), null, null, 60, 10).ids);
+        assertEquals(-1, search(index, "bike", List.of(), null, null, 45, 10).nextOffset);
+    }
+
+    @Test
+    void unionAndIntersectKeepPostingsSorted() {
+        ListingSearchIndex.Postings a = postings(1, 4, 9);
+        ListingSearchIndex.Postings b = postings(2, 4, 10);
+        ListingSearchIndex.Postings union = ListingSearchIndex.Postings.union(List.of(a, b, ListingSearchIndex.Postings.EMPTY));
+        assertEquals(List.of(1, 2, 4, 9, 10), docs(union));
+        assertEquals(List.of(4), docs(ListingSearchIndex.Postings.intersect(a, b)));
+    }
+
+    @Test
+    void rejectsNegativeOffsets() {
+        ListingSearchIndex search = new ListingSearchIndex(null, 60);
+        assertThrows(IllegalArgumentException.class,
+            () -> search.search("school", "desk", List.of(), null, null, -1, 10));
+    }
+
+    private static ListingSearchIndex.Hits search(ListingSearchIndex.SchoolIndex index, String text, List<String> tags,
+                                                  Double minPrice, Double maxPrice, int offset, int limit) {
+        return index.search(ListingSearchIndex.tokenize(text), tags, minPrice, maxPrice, offset, limit);
+    }
+
+    private static Listing listing(String id, String title, String description, List<String> tags,
+                                   double price, int daysOld) {
+        Listing listing = new Listing();
+        listing.setId(id);
+        listing.setTitle(title);
+        listing.setDescription(description);
+        listing.setTags(tags);
+        listing.setPrice(price);
+        listing.setDatePosted(NOW.minusDays(daysOld));
+        return listing;
+    }
+
+    private static ListingSearchIndex.Postings postings(int... docs) {
+        ListingSearchIndex.Postings postings = new ListingSearchIndex.Postings();
+        for (int doc : docs) {
+            postings.append(doc);
+        }
+        return postings;
+    }
+
+    private static List<Integer> docs(ListingSearchIndex.Postings postings) {
+        List<Integer> docs = new ArrayList<>();
+        for (int i = 0; i < postings.size; i++) {
+            docs.add(postings.docs[i]);
+        }
+        return docs;
+    }
+}
@@ -0,0 +1,48 @@
+package com.vgs.backend.service;
+
+import com.vgs.backend.model.User;
+import com.vgs.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserSummaryCacheTests {
+
+    private static final String EMAIL = "a@school.edu";
+
+    @Test
+    void aLoadThatRacedAnInvalidationIsNotCached() {
+        UserRepository users = mock(UserRepository.class);
+        UserSummaryCache cache = new UserSummaryCache(users, new SimpleMeterRegistry(), 100, 600);
+        // the rename is saved, and the cache invalidated, while the first load still holds the old document
+        when(users.findByEmail(EMAIL))
+            .thenAnswer(call -> {
+                cache.invalidate(EMAIL);
+                return Optional.of(user("Ann"));
+            })
+            .thenReturn(Optional.of(user("Anna")));
+
+        assertEquals("Ann", cache.get(EMAIL).orElseThrow().getFirstName());
+        assertEquals("Anna", cache.get(EMAIL).orElseThrow().getFirstName());
+        verify(users, times(2)).findByEmail(EMAIL);
+
+        // with no invalidation in between, the second load is cached
+        assertEquals("Anna", cache.get(EMAIL).orElseThrow().getFirstName());
+        verify(users, times(2)).findByEmail(EMAIL);
+    }
+
+    private static User user(String firstName) {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setFirstName(firstName);
+        user.setLastName("Lee");
+        return user;
+    }
+}
@@ -0,0 +1,89 @@
+package com.vgs.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageRenditionsTests {
+
+    @Test
+    void appliesExifOrientationBeforeScaling() throws IOException {
+        // stored landscape with a red top edge; orientation 6 means "rotate 90 clockwise to view"
+        byte[] jpeg = withOrientation(landscape(400, 200), 6, ByteOrder.LITTLE_ENDIAN);
+        assertEquals(6, ImageRenditions.exifOrientation(jpeg));
+
+        BufferedImage full = ImageIO.read(new ByteArrayInputStream(
+            ImageRenditions.render(jpeg).get(ImageRenditions.Size.FULL)));
+        assertEquals(200, full.getWidth());
+        assertEquals(400, full.getHeight());
+        // the red top edge is now on the right
+        assertTrue(isRed(full.getRGB(full.getWidth() - 5, full.getHeight() / 2)));
+        assertTrue(!isRed(full.getRGB(5, full.getHeight() / 2)));
+    }
+
+    @Test
+    void readsBigEndianExifAndIgnoresPhotosWithout() throws IOException {
+        assertEquals(8, ImageRenditions.exifOrientation(withOrientation(landscape(40, 20), 8, ByteOrder.BIG_ENDIAN)));
+        assertEquals(1, ImageRenditions.exifOrientation(landscape(40, 20)));
+        assertEquals(1, ImageRenditions.exifOrientation(new byte[] {1, 2, 3}));
+    }
+
+    @Test
+    void refusesImagesOverThePixelCapBeforeDecoding() throws IOException {
+        byte[] jpeg = landscape(400, 200);
+        assertThrows(IOException.class, () -> ImageRenditions.render(jpeg, 400L * 200 - 1));
+        Map<ImageRenditions.Size, byte[]> out = ImageRenditions.render(jpeg, 400L * 200);
+        assertEquals(3, out.size());
+    }
+
+    private static byte[] landscape(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLUE);
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, width, height / 5);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    // splices an APP1 Exif segment holding only IFD0/Orientation in right after SOI
+    private static byte[] withOrientation(byte[] jpeg, int orientation, ByteOrder order) {
+        ByteBuffer tiff = ByteBuffer.allocate(26).order(order);
+        tiff.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        tiff.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        tiff.putShort((short) 42).putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        tiff.putInt(0);
+
+        byte[] exif = {'E', 'x', 'i', 'f', 0, 0};
+        int length = 2 + exif.length + tiff.capacity();
+        ByteBuffer out = ByteBuffer.allocate(jpeg.length + 2 + length);
+        out.put(jpeg, 0, 2);
+        out.put((byte) 0xFF).put((byte) 0xE1).putShort((short) length);
+        out.put(exif).put(tiff.array());
+        out.put(jpeg, 2, jpeg.length - 2);
+        return out.array();
+    }
+
+    private static boolean isRed(int rgb) {
+        Color c = new Color(rgb);
+        return c.getRed() > 180 && c.getBlue() < 80;
+    }
+}
@@ -0,0 +1,127 @@
+package com.vgs.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsTheBurstThenRefillsAtTheEmissionRate() {
+        RateLimiter.Policy policy = new RateLimiter(100).policy("test", "3/m");
+        long t0 = 1_000 * SECOND;
+
+        assertEquals(0, policy.tryAcquire("a", t0));
+        assertEquals(0, policy.tryAcquire("a", t0));
+        assertEquals(0, policy.tryAcquire("a", t0));
+        // one token every 20s
+        assertEquals(20 * SECOND, policy.tryAcquire("a", t0));
+        assertEquals(5 * SECOND, policy.tryAcquire("a", t0 + 15 * SECOND));
+        assertEquals(0, policy.tryAcquire("a", t0 + 20 * SECOND));
+        assertEquals(20 * SECOND, policy.tryAcquire("a", t0 + 20 * SECOND));
+
+        // other keys are independent
+        assertEquals(0, policy.tryAcquire("b", t0));
+
+        // a full minute idle refills the whole burst, no more
+        long later = t0 + 200 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, policy.tryAcquire("a", later));
+        }
+        assertTrue(policy.tryAcquire("a", later) > 0);
+    }
+
+    @Test
+    void sweepDropsOnlyRefilledBuckets() {
+        RateLimiter limiter = new RateLimiter(100);
+        RateLimiter.Policy policy = limiter.policy("test", "1/s");
+        long t0 = 1_000 * SECOND;
+        policy.tryAcquire("a", t0);
+        policy.tryAcquire("b", t0 + SECOND / 2);
+
+        limiter.sweep(t0 + SECOND);
+
+        assertEquals(1, policy.size());
+        assertTrue(policy.tryAcquire("b", t0 + SECOND) > 0);
+        assertEquals(0, policy.tryAcquire("a", t0 + SECOND));
+    }
+
+    @Test
+    void sweepingConcurrentlyNeverGrantsAnExtraToken() throws Exception {
+        RateLimiter limiter = new RateLimiter(100);
+        RateLimiter.Policy policy = limiter.policy("test", "1/s");
+        int threads = 4;
+        int rounds = 2_000;
+        CyclicBarrier start = new CyclicBarrier(threads + 1);
+        CyclicBarrier end = new CyclicBarrier(threads + 1);
+        AtomicInteger[] allowed = new AtomicInteger[rounds];
+        for (int r = 0; r < rounds; r++) {
+            allowed[r] = new AtomicInteger();
+        }
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    for (int r = 0; r < rounds; r++) {
+                        start.await();
+                        if (policy.tryAcquire("key", roundTime(r)) == 0) {
+                            allowed[r].incrementAndGet();
+                        }
+                        end.await();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            t.start();
+            workers.add(t);
+        }
+        // every round starts with a refilled bucket, so the sweeper is always eligible to drop it
+        for (int r = 0; r < rounds; r++) {
+            start.await();
+            limiter.sweep(roundTime(r));
+            end.await();
+        }
+        for (Thread t : workers) {
+            t.join();
+        }
+
+        for (int r = 0; r < rounds; r++) {
+            assertEquals(1, allowed[r].get(), "round " + r);
+        }
+    }
+
+    @Test
+    void newKeysEvictTheBucketsClosestToFullWhenThePolicyIsFull() {
+        RateLimiter.Policy policy = new RateLimiter(10).policy("test", "1/m");
+        long t0 = 1_000 * SECOND;
+        for (int i = 0; i < 10; i++) {
+            // key i is full again at t0 + i seconds + 1 minute
+            assertEquals(0, policy.tryAcquire("k" + i, t0 + i * SECOND));
+        }
+
+        // a new key still gets its own bucket rather than a shared one
+        assertEquals(0, policy.tryAcquire("new", t0 + 10 * SECOND));
+        assertEquals(0, policy.tryAcquire("newer", t0 + 10 * SECOND));
+        assertTrue(policy.size() <= 10);
+
+        // k0 was evicted and starts over; the most recent keys are still limited
+        assertEquals(0, policy.tryAcquire("k0", t0 + 10 * SECOND));
+        assertTrue(policy.tryAcquire("k9", t0 + 10 * SECOND) > 0);
+        assertTrue(policy.tryAcquire("new", t0 + 10 * SECOND) > 0);
+    }
+
+    private static long roundTime(int round) {
+        return (1_000 + 10L * round) * SECOND;
+    }
+}
@@ -0,0 +1,40 @@
+package com.vgs.backend.util;
+
+import com.vgs.backend.model.UniversityEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class UniversityIndexTests {
+
+    @Test
+    void fingerprintDoesNotDependOnLoadOrder() {
+        List<UniversityEntry> universities = List.of(
+            entry("Stanford University", "stanford.edu"),
+            entry("Boston University", "bu.edu"),
+            entry("Boston College", "bc.edu"),
+            entry("Springfield College", "springfield.edu"),
+            entry("Springfield College", "spfldcol.edu")
+        );
+        List<UniversityEntry> shuffled = new ArrayList<>(universities);
+        Collections.reverse(shuffled);
+
+        assertEquals(new UniversityIndex(universities).fingerprint(), new UniversityIndex(shuffled).fingerprint());
+
+        List<UniversityEntry> changed = new ArrayList<>(universities);
+        changed.set(0, entry("Stanford University", "stanford.org"));
+        assertNotEquals(new UniversityIndex(universities).fingerprint(), new UniversityIndex(changed).fingerprint());
+    }
+
+    private static UniversityEntry entry(String name, String domain) {
+        UniversityEntry u = new UniversityEntry();
+        u.setName(name);
+        u.setDomains(List.of(domain));
+        return u;
+    }
+}
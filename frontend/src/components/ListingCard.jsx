@@ -70,6 +70,10 @@ function ListingCard({ listing, viewMode = "grid", showSeller = false, showDelet
 
   const getImageSrc = () => {
     if (imageError) return "/placeholder.svg?height=200&width=300"
+    // card-sized rendition once processing has finished, the original until then
+    if (Array.isArray(listing.images) && listing.images.length > 0) {
+      return listing.images[0].cardUrl
+    }
     if (Array.isArray(listing.imageUrls) && listing.imageUrls.length > 0) {
       return listing.imageUrls[0] || "/placeholder.svg?height=200&width=300"
     }
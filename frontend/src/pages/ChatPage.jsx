@@ -28,6 +28,8 @@ export default function ChatPage() {
   const [searchQuery, setSearchQuery] = useState("")
   const scrollRef = useRef()
   const messageEndRef = useRef()
+  // read by the push stream, which must not reconnect on every thread switch
+  const selectedRef = useRef(null)
 
   const token = localStorage.getItem("token")
   const myEmail = token ? decodeEmailFromToken(token) : ""
@@ -101,6 +103,38 @@ export default function ChatPage() {
     loadMessages()
   }, [selectedUser, token])
 
+  useEffect(() => {
+    selectedRef.current = selectedUser
+  }, [selectedUser])
+
+  // 2b) live updates pushed by the server instead of polling
+  useEffect(() => {
+    if (!token) return
+
+    const source = new EventSource(
+      `http://localhost:8080/messages/stream?access_token=${encodeURIComponent(token)}`,
+    )
+    const me = decodeEmailFromToken(token)
+    source.addEventListener("message", (e) => {
+      const msg = JSON.parse(e.data)
+      const otherId = msg.senderId === me ? msg.recipientId : msg.senderId
+
+      const selected = selectedRef.current
+      if (selected && otherId === selected.userId) {
+        setMessages((ms) => (ms.some((m) => m.id === msg.id) ? ms : [...ms, msg]))
+      }
+      setThreads((current) => {
+        const updated = { userId: otherId, lastMessage: msg.text, lastAt: msg.sentAt }
+        const existing = current.find((t) => t.userId === otherId)
+        return existing
+          ? current.map((t) => (t.userId === otherId ? { ...t, ...updated } : t))
+          : [{ ...updated, name: otherId }, ...current]
+      })
+    })
+
+    return () => source.close()
+  }, [token])
+
   // 3) send new message
   const send = async (e) => {
     e.preventDefault()
@@ -113,7 +147,7 @@ export default function ChatPage() {
         { text: draft },
         { headers: { Authorization: `Bearer ${token}` } },
       )
-      setMessages((ms) => [...ms, res.data])
+      setMessages((ms) => (ms.some((m) => m.id === res.data.id) ? ms : [...ms, res.data]))
       setDraft("")
 
       // Update the thread list to show the latest message
@@ -118,7 +118,12 @@ function ListingDetailsPage() {
     )
   }
 
-  const images = Array.isArray(listing.imageUrls) ? listing.imageUrls : []
+  const images =
+    Array.isArray(listing.images) && listing.images.length > 0
+      ? listing.images.map((image) => image.fullUrl)
+      : Array.isArray(listing.imageUrls)
+        ? listing.imageUrls
+        : []
   const prev = () => setIndex((index + images.length - 1) % images.length)
   const next = () => setIndex((index + 1) % images.length)
   const price =
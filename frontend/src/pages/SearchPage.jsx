@@ -43,6 +43,13 @@ export default function SearchPage() {
     { value: "dateDesc", label: "Date: Newest → Oldest" },
   ]
 
+  // sort orders the backend can paginate on directly
+  const SERVER_SORTS = {
+    priceAsc: "price_asc",
+    priceDesc: "price_desc",
+    dateDesc: "newest",
+  }
+
   const toggleTag = (tag) => setTags((ts) => (ts.includes(tag) ? ts.filter((t) => t !== tag) : [...ts, tag]))
 
   const fetchResults = async () => {
@@ -56,13 +63,14 @@ export default function SearchPage() {
       tags.forEach((t) => t.trim() && qs.append("tags", t.trim()))
       qs.set("minPrice", minPrice)
       qs.set("maxPrice", maxPrice)
+      if (SERVER_SORTS[sortBy]) qs.set("sort", SERVER_SORTS[sortBy])
 
       const url = `http://localhost:8080/listings/search?${qs.toString()}`
       const res = await axios.get(url, {
         headers: { Authorization: `Bearer ${token}` },
       })
 
-      const data = res.data
+      const data = res.data.items
 
       // client-side sorting
       switch (sortBy) {
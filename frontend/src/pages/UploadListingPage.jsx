@@ -98,20 +98,37 @@ export default function UploadListingPage() {
 
     setIsSubmitting(true)
 
-    const formData = new FormData()
-    formData.append("title", title.trim())
-    formData.append("description", description.trim())
-    formData.append("price", price)
-    images.forEach((image) => formData.append("images", image))
-    tags.forEach((tag) => formData.append("tags", tag))
+    const auth = { headers: { Authorization: `Bearer ${token}` } }
 
     try {
-      await axios.post("http://localhost:8080/listings", formData, {
-        headers: {
-          Authorization: `Bearer ${token}`,
-          "Content-Type": "multipart/form-data",
+      // 1) ask for presigned upload URLs, 2) send the images straight to S3, 3) create the listing
+      const { data: slots } = await axios.post(
+        "http://localhost:8080/listings/uploads",
+        images.map((image) => ({ filename: image.name, contentType: image.type })),
+        auth,
+      )
+      await Promise.all(
+        slots.map((slot, i) =>
+          fetch(slot.uploadUrl, {
+            method: "PUT",
+            headers: { "Content-Type": images[i].type },
+            body: images[i],
+          }).then((res) => {
+            if (!res.ok) throw new Error(`Image upload failed (${res.status})`)
+          }),
+        ),
+      )
+      await axios.post(
+        "http://localhost:8080/listings/finalize",
+        {
+          title: title.trim(),
+          description: description.trim(),
+          price: Number.parseFloat(price),
+          tags,
+          imageKeys: slots.map((slot) => slot.key),
         },
-      })
+        auth,
+      )
       navigate("/dashboard")
     } catch (err) {
       console.error(err)
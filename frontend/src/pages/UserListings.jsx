@@ -33,7 +33,7 @@ export default function UserListings() {
         const res = await axios.get('http://localhost:8080/listings/me', {
           headers: { Authorization: `Bearer ${token}` }
         });
-        setListings(Array.isArray(res.data) ? res.data : []);
+        setListings(Array.isArray(res.data.items) ? res.data.items : []);
       } catch (err) {
         console.error(err);
         setError('Failed to load listings.');
@@ -1,7 +1,6 @@
 import { useState, useEffect } from "react"
 import axios from "axios"
 import { useNavigate } from "react-router-dom"
-import universities from "../../data/us_universities.json"
 import NavBar from "../../components/Navbar"
 
 function SignupPage() {
@@ -9,6 +8,7 @@ function SignupPage() {
   const [last, setLast] = useState("")
   const [email, setEmail] = useState("")
   const [university, setUniversity] = useState("")
+  const [universityOptions, setUniversityOptions] = useState([])
   const [password, setPassword] = useState("")
   const [confirm, setConfirm] = useState("")
   const [passwordStrength, setPasswordStrength] = useState(0)
@@ -60,6 +60,36 @@ function SignupPage() {
     setPasswordFeedback(feedback)
   }, [password])
 
+  // autocomplete from the server-side university index
+  useEffect(() => {
+    if (!university.trim()) {
+      setUniversityOptions([])
+      return
+    }
+    const timer = setTimeout(() => {
+      axios
+        .get("http://localhost:8080/universities", { params: { prefix: university, limit: 10 } })
+        .then((res) => setUniversityOptions(res.data))
+        .catch(() => setUniversityOptions([]))
+    }, 150)
+    return () => clearTimeout(timer)
+  }, [university])
+
+  // prefill the university from the email domain when it is unambiguous
+  useEffect(() => {
+    const domain = email.split("@")[1]
+    if (university || !domain || !domain.endsWith(".edu")) return
+    const timer = setTimeout(() => {
+      axios
+        .get(`http://localhost:8080/universities/by-domain/${encodeURIComponent(domain)}`)
+        .then((res) => {
+          if (res.data.length === 1) setUniversity(res.data[0].name)
+        })
+        .catch(() => {})
+    }, 300)
+    return () => clearTimeout(timer)
+  }, [email])
+
   const isStrongPassword = (pwd) => {
     const regex = /^(?=.*[a-z])(?=.*[A-Z])(?=.*\d)(?=.*[^A-Za-z0-9]).{8,}$/
     return regex.test(pwd)
@@ -262,26 +292,19 @@ function SignupPage() {
                         d="M12 6.253v13m0-13C10.832 5.477 9.246 5 7.5 5S4.168 5.477 3 6.253v13C4.168 18.477 5.754 18 7.5 18s3.332.477 4.5 1.253m0-13C13.168 5.477 14.754 5 16.5 5c1.746 0 3.332.477 4.5 1.253v13C19.832 18.477 18.246 18 16.5 18c-1.746 0-3.332.477-4.5 1.253"
                       />
                     </svg>
-                    <select
-                      className="w-full pl-10 pr-4 py-3 border border-gray-300 rounded-lg focus:ring-2 focus:ring-purple-500 focus:border-transparent transition-all duration-200 appearance-none bg-white"
+                    <input
+                      type="text"
+                      list="university-options"
+                      className="w-full pl-10 pr-4 py-3 border border-gray-300 rounded-lg focus:ring-2 focus:ring-purple-500 focus:border-transparent transition-all duration-200 bg-white"
+                      placeholder="Start typing your university"
                       value={university}
                       onChange={(e) => setUniversity(e.target.value)}
-                    >
-                      <option value="">Select University</option>
-                      {universities.map((u, idx) => (
-                        <option key={idx} value={u.name}>
-                          {u.name}
-                        </option>
+                    />
+                    <datalist id="university-options">
+                      {universityOptions.map((u) => (
+                        <option key={u.name} value={u.name} />
                       ))}
-                    </select>
-                    <svg
-                      className="absolute right-3 top-3 h-5 w-5 text-gray-400 pointer-events-none"
-                      fill="none"
-                      stroke="currentColor"
-                      viewBox="0 0 24 24"
-                    >
-                      <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M19 9l-7 7-7-7" />
-                    </svg>
+                    </datalist>
                   </div>
                 </div>
 